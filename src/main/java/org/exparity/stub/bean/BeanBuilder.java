@@ -1,12 +1,10 @@
 package org.exparity.stub.bean;
 
-import static java.lang.System.identityHashCode;
 import static org.apache.commons.lang.StringUtils.lowerCase;
-import static org.exparity.beans.Type.type;
 import static org.exparity.stub.core.ValueFactories.*;
 
+import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.lang.reflect.ParameterizedType;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
@@ -20,24 +18,31 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
 
-import org.apache.commons.lang.StringUtils;
-import org.exparity.beans.Type;
 import org.exparity.beans.core.BeanNamingStrategy;
-import org.exparity.beans.core.BeanPropertyPath;
-import org.exparity.beans.core.TypeProperty;
 import org.exparity.beans.core.naming.ForceRootNameNamingStrategy;
 import org.exparity.beans.core.naming.LowerCaseNamingStrategy;
+import org.exparity.stub.bean.BuildListener.SkipReason;
+import org.exparity.stub.bean.BuildPlan.Step;
+import org.exparity.stub.bean.PathTrie.Path;
+import org.exparity.stub.core.Instantiators;
 import org.exparity.stub.core.NoDefaultConstructorException;
+import org.exparity.stub.core.StubMetrics;
 import org.exparity.stub.core.ValueFactories;
 import org.exparity.stub.core.ValueFactory;
+import org.exparity.stub.core.ValueFactoryResolver;
+import org.exparity.stub.random.PrimitiveArrays;
 import org.exparity.stub.random.RandomBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.exparity.stub.random.RandomSource;
 
 /**
  * Builder object for instantiating and populating objects which follow the Java beans standards conventions for
@@ -48,7 +53,11 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class BeanBuilder<T> {
 
-    private static final Logger LOG = LoggerFactory.getLogger(BeanBuilder.class);
+    /**
+     * The strategy which names the properties of every builder. A {@link ForceRootNameNamingStrategy} only renames the
+     * root so all builders share the same {@link BuildPlan} for a type.
+     */
+    private static final BeanNamingStrategy PROPERTY_NAMING = new LowerCaseNamingStrategy();
 
     /**
      * Return an instance of a {@link BeanBuilder} for the given type which can then be populated with values either
@@ -64,7 +73,7 @@ public class BeanBuilder<T> {
      * @param type the type to return the {@link BeanBuilder} for
      */
     public static <T> BeanBuilder<T> anInstanceOf(final Class<T> type) {
-        return new BeanBuilder<>(type, BeanBuilderType.NULL, new LowerCaseNamingStrategy());
+        return new BeanBuilder<>(type, BeanBuilderType.NULL, PROPERTY_NAMING);
     }
 
     /**
@@ -83,7 +92,7 @@ public class BeanBuilder<T> {
     public static <T> BeanBuilder<T> anInstanceOf(final Class<T> type, final String rootName) {
         return new BeanBuilder<>(type,
                 BeanBuilderType.NULL,
-                new ForceRootNameNamingStrategy(new LowerCaseNamingStrategy(), rootName));
+                new ForceRootNameNamingStrategy(PROPERTY_NAMING, rootName));
     }
 
     /**
@@ -98,7 +107,7 @@ public class BeanBuilder<T> {
      * @param type the type to return the {@link BeanBuilder} for
      */
     public static <T> BeanBuilder<T> anEmptyInstanceOf(final Class<T> type) {
-        return new BeanBuilder<>(type, BeanBuilderType.EMPTY, new LowerCaseNamingStrategy());
+        return new BeanBuilder<>(type, BeanBuilderType.EMPTY, PROPERTY_NAMING);
     }
 
     /**
@@ -117,7 +126,7 @@ public class BeanBuilder<T> {
     public static <T> BeanBuilder<T> anEmptyInstanceOf(final Class<T> type, final String rootName) {
         return new BeanBuilder<>(type,
                 BeanBuilderType.EMPTY,
-                new ForceRootNameNamingStrategy(new LowerCaseNamingStrategy(), rootName));
+                new ForceRootNameNamingStrategy(PROPERTY_NAMING, rootName));
     }
 
     /**
@@ -133,7 +142,7 @@ public class BeanBuilder<T> {
      * @param type the type to return the {@link BeanBuilder} for
      */
     public static <T> BeanBuilder<T> aRandomInstanceOf(final Class<T> type) {
-        return new BeanBuilder<>(type, BeanBuilderType.RANDOM, new LowerCaseNamingStrategy());
+        return new BeanBuilder<>(type, BeanBuilderType.RANDOM, PROPERTY_NAMING);
     }
 
     /**
@@ -151,20 +160,28 @@ public class BeanBuilder<T> {
     public static <T> BeanBuilder<T> aRandomInstanceOf(final Class<T> type, final String rootName) {
         return new BeanBuilder<>(type,
                 BeanBuilderType.RANDOM,
-                new ForceRootNameNamingStrategy(new LowerCaseNamingStrategy(), rootName));
+                new ForceRootNameNamingStrategy(PROPERTY_NAMING, rootName));
     }
 
-    private final Set<String> excludedProperties = new HashSet<>();
-    private final Set<String> excludedPaths = new HashSet<>();
-    private final Map<String, ValueFactory> paths = new HashMap<>();
-    private final Map<String, ValueFactory> properties = new HashMap<>();
-    private final Map<Class<?>, ValueFactory> types = new HashMap<>();
+    private Set<String> excludedProperties = new HashSet<>();
+    private PathTrie paths = new PathTrie();
+    private PersistentMap<String, ValueFactory<?>> properties = new PersistentMap<>();
+    private ValueFactoryResolver types = new ValueFactoryResolver();
     private final Class<T> type;
     private final BeanBuilderType builderType;
-    private final BeanNamingStrategy naming;;
+    private final BeanNamingStrategy naming;
     private CollectionSize defaultCollectionSize = new CollectionSize(1, 5);
-    private final Map<String, CollectionSize> collectionSizeForPaths = new HashMap<>();
-    private final Map<String, CollectionSize> collectionSizeForProperties = new HashMap<>();
+    private Map<String, CollectionSize> collectionSizeForProperties = new HashMap<>();
+    private BuildListener listener;
+    private boolean fieldAccess;
+    private Map<Class<?>, ValueFactory> pools;
+
+    /**
+     * The builder this builder shares its configuration with, either the snapshot taken by the last call to
+     * {@link #freeze()} or the snapshot this builder was derived from. A collection is copied before it is first
+     * modified while it is still shared.
+     */
+    private BeanBuilder<T> sharedWith;
 
     private BeanBuilder(final Class<T> type, final BeanBuilderType builderType, final BeanNamingStrategy naming) {
         this.type = type;
@@ -172,6 +189,22 @@ public class BeanBuilder<T> {
         this.naming = naming;
     }
 
+    private BeanBuilder(final BeanBuilder<T> other) {
+        this.excludedProperties = other.excludedProperties;
+        this.paths = other.paths;
+        this.properties = other.properties;
+        this.types = other.types;
+        this.type = other.type;
+        this.builderType = other.builderType;
+        this.naming = other.naming;
+        this.defaultCollectionSize = other.defaultCollectionSize;
+        this.collectionSizeForProperties = other.collectionSizeForProperties;
+        this.listener = other.listener;
+        this.fieldAccess = other.fieldAccess;
+        this.pools = other.pools;
+        this.sharedWith = other;
+    }
+
     /**
      * Configure the builder to populate the given property or path with the supplied value. For example
      * </p>
@@ -204,7 +237,7 @@ public class BeanBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public <V> BeanBuilder<T> with(final Class<V> type, final ValueFactory<V> factory) {
-        this.types.put(type, factory);
+        ownTypes().register(type, factory);
         return this;
     }
 
@@ -260,7 +293,7 @@ public class BeanBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public BeanBuilder<T> property(final String propertyName, final ValueFactory<?> factory) {
-        this.properties.put(lowerCase(propertyName), factory);
+        this.properties = this.properties.with(lowerCase(propertyName), factory);
         return this;
     }
 
@@ -279,7 +312,7 @@ public class BeanBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public <X> BeanBuilder<T> factory(final Class<X> type, final ValueFactory<X> factory) {
-        this.types.put(type, factory);
+        ownTypes().register(type, factory);
         return this;
     }
 
@@ -296,7 +329,7 @@ public class BeanBuilder<T> {
      * @param propertyName the property to exclude
      */
     public BeanBuilder<T> excludeProperty(final String propertyName) {
-        this.excludedProperties.add(lowerCase(propertyName));
+        ownExcludedProperties().add(lowerCase(propertyName));
         return this;
     }
 
@@ -331,7 +364,7 @@ public class BeanBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public BeanBuilder<T> path(final String path, final ValueFactory<?> factory) {
-        this.paths.put(lowerCase(path), factory);
+        this.paths = this.paths.withFactory(lowerCase(path), factory);
         return this;
     }
 
@@ -348,7 +381,7 @@ public class BeanBuilder<T> {
      * @param path the path to exclude
      */
     public BeanBuilder<T> excludePath(final String path) {
-        this.excludedPaths.add(lowerCase(path));
+        this.paths = this.paths.withExcluded(lowerCase(path));
         return this;
     }
 
@@ -401,7 +434,7 @@ public class BeanBuilder<T> {
      * @param max the maximum size to create the collections
      */
     public BeanBuilder<T> collectionSizeRangeForPropertyOf(final String property, final int min, final int max) {
-        this.collectionSizeForProperties.put(property, new CollectionSize(min, max));
+        ownCollectionSizeForProperties().put(property, new CollectionSize(min, max));
         return this;
     }
 
@@ -454,7 +487,7 @@ public class BeanBuilder<T> {
      * @param max the maximum size to create the collection
      */
     public BeanBuilder<T> collectionSizeRangeForPathOf(final String path, final int min, final int max) {
-        this.collectionSizeForPaths.put(path, new CollectionSize(min, max));
+        this.paths = this.paths.withCollectionSize(path, new CollectionSize(min, max));
         return this;
     }
 
@@ -492,6 +525,86 @@ public class BeanBuilder<T> {
         return with(supertype, oneOf(createInstanceOfFactoriesForTypes(subtypes)));
     }
 
+    /**
+     * Configure the builder to notify the given listener as it creates values and populates properties. Listeners
+     * registered more than once are notified in the order they were registered. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .listener(BuildListeners.logging())
+     *                        .build()
+     * </pre>
+     *
+     * @param listener the listener to notify
+     */
+    public BeanBuilder<T> listener(final BuildListener listener) {
+        this.listener = BuildListeners.both(this.listener, listener);
+        return this;
+    }
+
+    /**
+     * Configure the builder to populate the fields declared by each instance, and its super types, directly rather
+     * than through its setters. Final fields are populated where the JVM allows, instances of types without a public
+     * default constructor are created without invoking a constructor, and fields holding the default value of a
+     * primitive type are treated as unset. Property names in paths, exclusions, and collection sizes refer to field names. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .usingFields()
+     *                        .path("person.firstName", "Bob")
+     *                        .build()
+     * </pre>
+     */
+    public BeanBuilder<T> usingFields() {
+        this.fieldAccess = true;
+        return this;
+    }
+
+    /**
+     * Configure the builder to draw the random strings, decimals, dates, times, and durations it creates from a pool of
+     * up to 4096 distinct values of each type. See {@link #internValues(int)}.
+     */
+    public BeanBuilder<T> internValues() {
+        return internValues(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Configure the builder to draw the random strings, decimals, dates, times, and durations it creates from a pool of
+     * up to the given number of distinct values of each type. Instances then share these immutable values rather than
+     * each holding its own, which reduces the memory used by large graphs while the values remain varied. Values
+     * configured for a property, path, or type are not pooled, and as fewer distinct values are created the keys of a
+     * set or map are more likely to repeat. The values pooled while building with a seed, as by
+     * {@link #buildParallel(int, long)}, depend only on their type so seeded builds remain reproducible. Only a random
+     * builder creates values to pool so configuring any other builder fails. For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .internValues(1024)
+     *                        .buildMany(1_000_000)
+     * </pre>
+     *
+     * @param poolSize the maximum number of distinct values of each type
+     * @throws IllegalStateException if the builder is not a random builder
+     */
+    public BeanBuilder<T> internValues(final int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1. Size [" + poolSize + "]");
+        } else if (this.builderType != BeanBuilderType.RANDOM) {
+            throw new IllegalStateException("Values can only be interned by a random builder. Builder ["
+                    + this.builderType
+                    + "]");
+        }
+        Map<Class<?>, ValueFactory> pools = new HashMap<>();
+        for (Class<?> type : INTERNED_TYPES) {
+            pools.put(type, new ValuePool<>(RANDOM_FACTORIES.get(type), poolSize, type.getName().hashCode()));
+        }
+        this.pools = pools;
+        return this;
+    }
+
     /**
      * Build the configured instance. For example
      * </p>
@@ -504,15 +617,175 @@ public class BeanBuilder<T> {
      * </pre>
      */
     public T build() {
-        return populate(createNewInstance(),
-                new BeanPropertyPath(this.naming.describeRoot(this.type)),
-                new Stack(type(this.type)));
+        return build(constructor(), rootPath());
+    }
+
+    /**
+     * Build the given number of configured instances. The configuration is resolved once and shared by every instance.
+     * For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .path("person.firstName", "Bob")
+     *                        .buildMany(1000)
+     * </pre>
+     *
+     * @param count the number of instances to build
+     */
+    public List<T> buildMany(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot build a negative number of instances. Count [" + count + "]");
+        }
+        ValueFactory<T> constructor = constructor();
+        Path root = rootPath();
+        List<T> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            instances.add(build(constructor, root));
+        }
+        return instances;
+    }
+
+    /**
+     * Return an infinite, lazy stream of configured instances. Each instance is built as it is consumed and the
+     * configuration is resolved once and shared by every instance. The builder should not be reconfigured while the
+     * stream is in use. For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .stream()
+     *                        .limit(1000)
+     *                        .collect(Collectors.toList())
+     * </pre>
+     */
+    public Stream<T> stream() {
+        ValueFactory<T> constructor = constructor();
+        Path root = rootPath();
+        return Stream.generate(() -> build(constructor, root));
+    }
+
+    /**
+     * Build the given number of configured instances in parallel on the common {@link ForkJoinPool}. Each instance
+     * draws its random values from its own sequence derived from the seed and its position in the list so the same
+     * seed builds the same instances however the work is split. Any factories configured on the builder must be safe
+     * to call from more than one thread. For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .buildParallel(100000, 42L)
+     * </pre>
+     *
+     * @param count the number of instances to build
+     * @param seed the seed the random values of every instance are derived from
+     */
+    public List<T> buildParallel(final int count, final long seed) {
+        return buildParallel(count, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build the given number of configured instances in parallel on the given {@link ForkJoinPool}. Each instance draws
+     * its random values from its own sequence derived from the seed and its position in the list so the same seed
+     * builds the same instances whatever the parallelism of the pool. Any factories configured on the builder must be
+     * safe to call from more than one thread. For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .buildParallel(100000, 42L, new ForkJoinPool(4))
+     * </pre>
+     *
+     * @param count the number of instances to build
+     * @param seed the seed the random values of every instance are derived from
+     * @param pool the pool to build the instances on
+     */
+    public List<T> buildParallel(final int count, final long seed, final ForkJoinPool pool) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot build a negative number of instances. Count [" + count + "]");
+        }
+        Object[] instances = new Object[count];
+        int batchSize = Math.max(1, count / (pool.getParallelism() * 8));
+        pool.invoke(new ParallelBuild(instances,
+                0,
+                count,
+                batchSize,
+                seed,
+                constructor(),
+                rootPath()));
+        return new ArrayList<>((List<T>) Arrays.asList(instances));
+    }
+
+    /**
+     * Return an immutable template holding the current configuration of the builder. The template can be shared by
+     * threads and kept, for example in a static field, while this builder continues to be reconfigured without
+     * affecting it. The template and builder share the configuration until either is changed. For example
+     * </p>
+     *
+     * <pre>
+     * static final BeanTemplate&lt;Person&gt; PERSON = BeanBuilder.aRandomInstanceOf(Person.class)
+     *                        .collectionSizeOf(2)
+     *                        .freeze();
+     *
+     * Person bob = PERSON.with("person.firstName", "Bob").build();
+     * </pre>
+     */
+    public BeanTemplate<T> freeze() {
+        this.sharedWith = new BeanBuilder<>(this);
+        return new BeanTemplate<>(this.sharedWith);
+    }
+
+    /**
+     * Return a new builder which starts with the configuration of the given snapshot and copies any of it before
+     * changing it
+     */
+    static <T> BeanBuilder<T> derivedFrom(final BeanBuilder<T> snapshot) {
+        return new BeanBuilder<>(snapshot);
+    }
+
+    private Set<String> ownExcludedProperties() {
+        if (this.sharedWith != null && this.excludedProperties == this.sharedWith.excludedProperties) {
+            this.excludedProperties = new HashSet<>(this.excludedProperties);
+        }
+        return this.excludedProperties;
+    }
+
+    private Map<String, CollectionSize> ownCollectionSizeForProperties() {
+        if (this.sharedWith != null
+                && this.collectionSizeForProperties == this.sharedWith.collectionSizeForProperties) {
+            this.collectionSizeForProperties = new HashMap<>(this.collectionSizeForProperties);
+        }
+        return this.collectionSizeForProperties;
+    }
+
+    private ValueFactoryResolver ownTypes() {
+        if (this.sharedWith != null && this.types == this.sharedWith.types) {
+            this.types = this.types.copy();
+        }
+        return this.types;
+    }
+
+    private ValueFactory<T> constructor() {
+        return this.fieldAccess ? Instantiators.constructorOrInstantiatorOf(this.type)
+                : Instantiators.constructorOf(this.type);
+    }
+
+    private Path rootPath() {
+        return this.paths.root(this.naming.describeRoot(this.type));
+    }
+
+    private T build(final ValueFactory<T> constructor, final Path root) {
+        long start = StubMetrics.start();
+        T instance = populate(createNewInstance(constructor), root, new RecursionGuard(this.type));
+        StubMetrics.objectCreated(this.type, start);
+        return instance;
     }
 
-    private <I> I populate(final I instance, final BeanPropertyPath path, final Stack stack) {
+    private <I> I populate(final I instance, final Path path, final RecursionGuard guard) {
         if (instance != null) {
-            for (TypeProperty property : type(instance, this.naming).propertyList()) {
-                populateProperty(instance, property, path.append(property.getName()), stack);
+            for (Step step : BuildPlan.of(instance.getClass(), PROPERTY_NAMING, this.builderType, this.fieldAccess)
+                    .getSteps()) {
+                populateProperty(instance, step, path.append(step.getName()), guard);
             }
             return instance;
         } else {
@@ -521,74 +794,88 @@ public class BeanBuilder<T> {
     }
 
     private void populateProperty(final Object instance,
-            final TypeProperty property,
-            final BeanPropertyPath path,
-            final Stack stack) {
+            final Step step,
+            final Path path,
+            final RecursionGuard guard) {
 
-        if (isExcludedPath(path) || isExcludedProperty(property)) {
-            LOG.trace("Ignore [{}]. Explicity excluded", path);
+        if (path.isExcluded() || isExcludedProperty(step)) {
+            if (this.listener != null) {
+                this.listener.propertySkipped(path, SkipReason.EXCLUDED);
+            }
             return;
         }
 
-        ValueFactory factory = factoryForPath(property, path);
+        ValueFactory factory = factoryForPath(step, path);
         if (factory != null) {
-            assignValue(instance, property, path, createValue(factory, this.type), stack);
+            assignValue(instance, step, path, createValue(factory, (Class) step.getType()), guard);
             return;
         }
 
-        if (isPropertySet(instance, property) || isChildOfAssignedPath(path) || isOverflowing(property, path, stack)) {
+        if (isPropertySet(instance, step)) {
+            if (this.listener != null) {
+                this.listener.propertySkipped(path, SkipReason.ALREADY_SET);
+            }
             return;
-        }
-
-        if (property.isArray()) {
-            property.setValue(instance, createArray(property.getType().getComponentType(), path, stack));
-        } else {
-            java.lang.reflect.Type[] params = property.getMutator().getGenericParameterTypes();
-            java.lang.reflect.Type firstParam = params[0];
-            Class<?> typeParameter = getActualType(firstParam, 0);
-            if (property.isMap()) {
-                property.setValue(instance,
-                        createMap(typeParameter, property.getTypeParameter(1), collectionSize(path), path, stack));
-            } else if (property.isSet()) {
-                property.setValue(instance, createSet(typeParameter, collectionSize(path), path, stack));
-            } else if (property.isList() || property.isCollection()) {
-                property.setValue(instance, createList(typeParameter, collectionSize(path), path, stack));
-            } else {
-                assignValue(instance, property, path, createValue(property.getType()), stack);
+        } else if (path.isChildOfAssignedPath()) {
+            if (this.listener != null) {
+                this.listener.propertySkipped(path, SkipReason.CHILD_OF_ASSIGNED_PATH);
             }
+            return;
+        } else if (isOverflowing(step, path, guard)) {
+            return;
         }
-    }
 
-    private Class<? extends Object> getActualType(final java.lang.reflect.Type type, final int typeOrdinal) {
-        if (type instanceof Class) {
-            return (Class<? extends Object>) type;
-        } else if (type instanceof ParameterizedType) {
-            return getActualType(((ParameterizedType) type).getActualTypeArguments()[typeOrdinal], 0);
-        } else {
-            throw new IllegalArgumentException("Unknown type subclass '" + type.getClass());
+        switch (step.getKind()) {
+        case ARRAY:
+            assignCollection(instance, step, path, createArray(step, path, guard));
+            break;
+        case MAP:
+            assignCollection(instance, step, path, createMap(step, collectionSize(step, path), path, guard));
+            break;
+        case SET:
+            assignCollection(instance, step, path, createSet(step, collectionSize(step, path), path, guard));
+            break;
+        case LIST:
+            assignCollection(instance, step, path, createList(step, collectionSize(step, path), path, guard));
+            break;
+        default:
+            assignValue(instance, step, path, createValue((Class) step.getType(), step.getFactory()), guard);
+            break;
         }
     }
 
-    private boolean isPropertySet(final Object instance, final TypeProperty property) {
-        if (property.getValue(instance) == null) {
+    private boolean isPropertySet(final Object instance, final Step step) {
+        Object value = step.getAccessor().getValue(instance);
+        if (value == null) {
             return false;
-        } else if (property.isCollection()) {
-            return !property.getValue(instance, Collection.class).isEmpty();
-        } else if (property.isMap()) {
-            return !property.getValue(instance, Map.class).isEmpty();
-        } else {
+        } else if (this.fieldAccess && step.getType().isPrimitive()) {
+            // A field holding the default value of its primitive type has not been set
+            return value instanceof Number ? ((Number) value).doubleValue() != 0
+                    : value instanceof Boolean ? (Boolean) value : (Character) value != 0;
+        }
+        switch (step.getKind()) {
+        case SET:
+        case LIST:
+            return !((Collection) value).isEmpty();
+        case MAP:
+            return !((Map) value).isEmpty();
+        default:
             return true;
         }
     }
 
-    private boolean isOverflowing(final TypeProperty property, final BeanPropertyPath path, final Stack stack) {
-        if (stack.contains(property.getType())) {
-            LOG.trace("Ignore {}. Avoids stack overflow caused by type {}", path, property.getTypeSimpleName());
+    private boolean isOverflowing(final Step step, final Path path, final RecursionGuard guard) {
+        if (guard.contains(step.getType())) {
+            if (this.listener != null) {
+                this.listener.recursionCut(path, step.getType());
+            }
             return true;
         }
-        for (Class<?> genericType : property.getTypeParameters()) {
-            if (stack.contains(genericType)) {
-                LOG.trace("Ignore {}. Avoids stack overflow caused by type {}", path, genericType.getSimpleName());
+        for (Class<?> genericType : step.getTypeParameters()) {
+            if (guard.contains(genericType)) {
+                if (this.listener != null) {
+                    this.listener.recursionCut(path, genericType);
+                }
                 return true;
             }
         }
@@ -596,73 +883,80 @@ public class BeanBuilder<T> {
         return false;
     }
 
-    private ValueFactory factoryForPath(final TypeProperty property, final BeanPropertyPath path) {
-        return selectNotNull(this.paths.get(path.fullPath()),
-                this.paths.get(path.fullPathWithNoIndexes()),
-                this.properties.get(property.getName()));
+    private ValueFactory factoryForPath(final Step step, final Path path) {
+        return selectNotNull(path.getFactory(), this.properties.get(step.getName()));
     }
 
-    private boolean isExcludedProperty(final TypeProperty property) {
-        return this.excludedProperties.contains(property.getName());
-    }
-
-    private boolean isExcludedPath(final BeanPropertyPath path) {
-        return this.excludedPaths.contains(path.fullPath()) || this.excludedPaths.contains(path
-                .fullPathWithNoIndexes());
-    }
-
-    private boolean isChildOfAssignedPath(final BeanPropertyPath path) {
-        for (String assignedPath : this.paths.keySet()) {
-            if (path.startsWith(assignedPath + ".")) {
-                LOG.trace("Ignore {}. Child of assigned path {}", path, assignedPath);
-                return true;
-            }
-        }
-        return false;
+    private boolean isExcludedProperty(final Step step) {
+        return this.excludedProperties.contains(step.getName());
     }
 
     private void assignValue(final Object instance,
-            final TypeProperty property,
-            final BeanPropertyPath path,
+            final Step step,
+            final Path path,
             final Object value,
-            final Stack stack) {
+            final RecursionGuard guard) {
         if (value != null) {
-            LOG.trace("Assign {} value [{}:{}]",
-                    new Object[] { path, value.getClass().getSimpleName(), identityHashCode(value) });
-            property.setValue(instance, populate(value, path, stack.append(type(value))));
-        } else {
-            LOG.trace("Assign {} value [null]", path);
+            guard.push(value.getClass());
+            step.getAccessor().setValue(instance, populate(value, path, guard));
+            guard.pop(value.getClass());
+            if (this.listener != null) {
+                this.listener.propertyAssigned(path, value);
+            }
         }
     }
 
-    private <E> E createValue(final Class<E> type) {
+    private void assignCollection(final Object instance, final Step step, final Path path, final Object value) {
+        step.getAccessor().setValue(instance, value);
+        if (this.listener != null) {
+            this.listener.propertyAssigned(path, value);
+        }
+    }
 
-        for (Entry<Class<?>, ValueFactory> keyedFactory : this.types.entrySet()) {
-            if (type.isAssignableFrom(keyedFactory.getKey())) {
-                ValueFactory factory = keyedFactory.getValue();
-                return (E) createValue(factory, type);
-            }
+    private <E> E createValue(final Class<E> type, final ValueFactory<E> defaultFactory) {
+        Optional<ValueFactory<E>> override = this.types.resolve(type);
+        if (override.isPresent()) {
+            return createValue(override.get(), type);
+        } else if (this.pools != null) {
+            ValueFactory<E> pool = this.pools.get(type);
+            return createValue(pool != null ? pool : defaultFactory, type);
         }
+        return createValue(defaultFactory, type);
+    }
 
-        switch (this.builderType) {
+    /**
+     * Return the factory which creates values of the type for the builder type when no other factory is configured, or
+     * null if the builder type leaves values of the type unset
+     */
+    static ValueFactory defaultFactoryFor(final Class<?> type,
+            final BeanBuilderType builderType,
+            final boolean fieldAccess) {
+        if (type == null) {
+            return null;
+        }
+        switch (builderType) {
         case RANDOM: {
             ValueFactory factory = RANDOM_FACTORIES.get(type);
             if (factory != null) {
-                return (E) createValue(factory, type);
+                return factory;
             } else if (type.isEnum()) {
-                return createValue(aRandomEnum(type), type);
+                return aRandomEnum(type);
+            } else if (fieldAccess) {
+                return Instantiators.constructorOrInstantiatorOf(type);
             } else {
-                return createValue(ValueFactories.anEmptyInstanceOf(type), type);
+                return ValueFactories.anEmptyInstanceOf(type);
             }
         }
         case EMPTY: {
             ValueFactory factory = EMPTY_FACTORIES.get(type);
             if (factory != null) {
-                return (E) createValue(factory, type);
+                return factory;
             } else if (type.isEnum()) {
                 return null;
+            } else if (fieldAccess) {
+                return Instantiators.constructorOrInstantiatorOf(type);
             } else {
-                return createValue(ValueFactories.anEmptyInstanceOf(type), type);
+                return ValueFactories.anEmptyInstanceOf(type);
             }
         }
         default:
@@ -671,35 +965,76 @@ public class BeanBuilder<T> {
     }
 
     private <E> E createValue(final ValueFactory<E> factory, final Class<E> type) {
+        long start = StubMetrics.start(), listenerStart = this.listener != null ? System.nanoTime() : 0L;
         E value = factory != null ? factory.createValue() : null;
-        LOG.trace("Create Value [{}] for Type [{}]", value, type(type).simpleName());
+        if (value != null) {
+            StubMetrics.objectCreated(type, start);
+        }
+        if (this.listener != null) {
+            this.listener.valueCreated(type, value, System.nanoTime() - listenerStart);
+        }
         return value;
     }
 
-    private <E> Object createArray(final Class<E> type, final BeanPropertyPath path, final Stack stack) {
+    private Object createArray(final Step step, final Path path, final RecursionGuard guard) {
         switch (this.builderType) {
         case EMPTY:
         case RANDOM:
-            Object array = Array.newInstance(type, collectionSize(path));
-            for (int i = 0; i < Array.getLength(array); ++i) {
-                Array.set(array, i, populate(createValue(type), path.appendIndex(i), stack.append(type)));
-            }
-            return array;
+            return createArray(step.getType(), step.getFactory(), collectionSize(step, path), path, guard);
         default:
             return null;
         }
     }
 
-    private <E> Set<E> createSet(final Class<E> type,
+    private Object createArray(final Class arrayType,
+            final ValueFactory factory,
             final int length,
-            final BeanPropertyPath path,
-            final Stack stack) {
+            final Path path,
+            final RecursionGuard guard) {
+        Class type = arrayType.getComponentType();
+        if (type.isPrimitive()) {
+            return createPrimitiveArray(arrayType, length);
+        }
+        Object[] array = (Object[]) Array.newInstance(type, length);
+        for (int i = 0; i < length; ++i) {
+            Object value = createValue(type, factory);
+            guard.push(type);
+            array[i] = populate(value, path.appendIndex(i), guard);
+            guard.pop(type);
+        }
+        return array;
+    }
+
+    /**
+     * Create an array of primitives. Unless a factory is configured for the primitive type the array is filled directly
+     * rather than element by element, and an empty builder leaves every element as the default value of the type.
+     */
+    private Object createPrimitiveArray(final Class arrayType, final int length) {
+        Class type = arrayType.getComponentType();
+        Optional<ValueFactory> override = this.types.resolve(type);
+        if (override.isPresent()) {
+            Object array = Array.newInstance(type, length);
+            for (int i = 0; i < length; ++i) {
+                Array.set(array, i, createValue(override.get(), type));
+            }
+            return array;
+        }
+        return createValue(() -> this.builderType == BeanBuilderType.RANDOM
+                ? PrimitiveArrays.aRandomArrayOf(type, length)
+                : Array.newInstance(type, length), arrayType);
+    }
+
+    private <E> Set<E> createSet(final Step step, final int length, final Path path, final RecursionGuard guard) {
         switch (this.builderType) {
         case EMPTY:
         case RANDOM:
+            Class<E> type = (Class<E>) step.getElementType();
             Set<E> set = new HashSet<>();
             for (int i = 0; i < length; ++i) {
-                E value = populate(createValue(type), path.appendIndex(i), stack.append(type));
+                E value = createValue(type, (ValueFactory<E>) step.getFactory());
+                guard.push(type);
+                value = populate(value, path.appendIndex(i), guard);
+                guard.pop(type);
                 if (value != null) {
                     set.add(value);
                 }
@@ -710,16 +1045,17 @@ public class BeanBuilder<T> {
         }
     }
 
-    private <E> List<E> createList(final Class<E> type,
-            final int length,
-            final BeanPropertyPath path,
-            final Stack stack) {
+    private <E> List<E> createList(final Step step, final int length, final Path path, final RecursionGuard guard) {
         switch (this.builderType) {
         case EMPTY:
         case RANDOM:
+            Class<E> type = (Class<E>) step.getElementType();
             List<E> list = new ArrayList<>();
             for (int i = 0; i < length; ++i) {
-                E value = populate(createValue(type), path.appendIndex(i), stack.append(type));
+                E value = createValue(type, (ValueFactory<E>) step.getFactory());
+                guard.push(type);
+                value = populate(value, path.appendIndex(i), guard);
+                guard.pop(type);
                 if (value != null) {
                     list.add(value);
                 }
@@ -730,20 +1066,36 @@ public class BeanBuilder<T> {
         }
     }
 
-    private <K, V> Map<K, V> createMap(final Class<K> keyType,
-            final Class<V> valueType,
+    private <K, V> Map<K, V> createMap(final Step step,
             final int length,
-            final BeanPropertyPath path,
-            final Stack stack) {
+            final Path path,
+            final RecursionGuard guard) {
         switch (this.builderType) {
         case EMPTY:
         case RANDOM:
-            Map<K, V> map = new HashMap<>();
+            Class<K> keyType = (Class<K>) step.getElementType();
+            Class<V> valueType = (Class<V>) step.getValueType();
+            Map<K, V> map = new HashMap<>((int) (length / 0.75f) + 1);
             for (int i = 0; i < length; ++i) {
-                K key = populate(createValue(keyType), path.appendIndex(i), stack.append(keyType).append(valueType));
+                K key = createValue(keyType, (ValueFactory<K>) step.getFactory());
+                guard.push(keyType);
+                guard.push(valueType);
+                key = populate(key, path.appendIndex(i), guard);
                 if (key != null) {
-                    map.put(key, RandomBuilder.aRandomInstanceOf(valueType));
+                    Path valuePath = path.appendKey(key);
+                    if (valueType.isArray()) {
+                        map.put(key, (V) createArray(valueType,
+                                step.getValueFactory(),
+                                collectionSize(step, valuePath),
+                                valuePath,
+                                guard));
+                    } else {
+                        V value = createValue(valueType, (ValueFactory<V>) step.getValueFactory());
+                        map.put(key, populate(value, valuePath, guard));
+                    }
                 }
+                guard.pop(valueType);
+                guard.pop(keyType);
             }
             return map;
         default:
@@ -751,9 +1103,9 @@ public class BeanBuilder<T> {
         }
     }
 
-    private T createNewInstance() {
+    private T createNewInstance(final ValueFactory<T> constructor) {
         try {
-            return ValueFactories.anEmptyInstanceOf(type).createValue();
+            return constructor.createValue();
         } catch (NoDefaultConstructorException e) {
             throw e;
         } catch (Exception e) {
@@ -762,17 +1114,12 @@ public class BeanBuilder<T> {
         }
     }
 
-    private int collectionSize(final BeanPropertyPath path) {
-        return selectNotNull(this.collectionSizeForPaths.get(path.fullPath()),
-                this.collectionSizeForPaths.get(path.fullPathWithNoIndexes()),
-                this.collectionSizeForProperties.get(propertyName(path)),
+    private int collectionSize(final Step step, final Path path) {
+        return selectNotNull(path.getCollectionSize(),
+                this.collectionSizeForProperties.get(step.getName()),
                 this.defaultCollectionSize).aRandomSize();
     }
 
-    private String propertyName(final BeanPropertyPath path) {
-        return StringUtils.substringAfterLast(path.fullPathWithNoIndexes(), ".");
-    }
-
     private <X> List<ValueFactory<X>> createInstanceOfFactoriesForTypes(final Class<? extends X>... subtypes) {
         List<ValueFactory<X>> factories = new ArrayList<>();
         for (Class<? extends X> subtype : subtypes) {
@@ -781,42 +1128,126 @@ public class BeanBuilder<T> {
         return factories;
     }
 
-    private static class Stack {
+    /**
+     * Builds a range of the instances of a {@link #buildParallel(int, long, ForkJoinPool)} call, splitting the range
+     * in two until it is no larger than the batch size
+     */
+    @SuppressWarnings("serial")
+    private class ParallelBuild extends RecursiveAction {
+
+        private final Object[] instances;
+        private final int from, to, batchSize;
+        private final long seed;
+        private final ValueFactory<T> constructor;
+        private final Path root;
+
+        private ParallelBuild(final Object[] instances,
+                final int from,
+                final int to,
+                final int batchSize,
+                final long seed,
+                final ValueFactory<T> constructor,
+                final Path root) {
+            this.instances = instances;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.seed = seed;
+            this.constructor = constructor;
+            this.root = root;
+        }
 
-        private final Type[] stack;
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.batchSize) {
+                for (int i = this.from; i < this.to; ++i) {
+                    this.instances[i] = RandomSource.withSeed(RandomSource.seedFor(this.seed, i),
+                            () -> build(this.constructor, this.root));
+                }
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(split(this.from, middle), split(middle, this.to));
+            }
+        }
 
-        private Stack(final Type type) {
-            this(new Type[] { type });
+        private ParallelBuild split(final int from, final int to) {
+            return new ParallelBuild(this.instances, from, to, this.batchSize, this.seed, this.constructor, this.root);
         }
+    }
+
+    /**
+     * Guards against populating an infinitely deep graph by counting the types on the path from the root to the
+     * instance being populated. Each type counts against every type it can be assigned to so a property is left unset
+     * once more than one instance assignable to its type is being populated along the path.
+     */
+    private static class RecursionGuard {
+
+        private static final ClassValue<Class<?>[]> ASSIGNABLE_TO = new ClassValue<Class<?>[]>() {
 
-        private Stack(final Type[] stack) {
-            this.stack = stack;
+            @Override
+            protected Class<?>[] computeValue(final Class<?> type) {
+                Set<Class<?>> assignableTo = new LinkedHashSet<>();
+                addAssignableTo(type, assignableTo);
+                return assignableTo.toArray(new Class<?>[assignableTo.size()]);
+            }
+        };
+
+        private final Map<Class<?>, int[]> counts = new IdentityHashMap<>();
+
+        private RecursionGuard(final Class<?> root) {
+            push(root);
         }
 
         public boolean contains(final Class<?> type) {
-            int hits = 0;
-            for (Type entry : this.stack) {
-                if (entry.is(type)) {
-                    if ((++hits) > 1) {
-                        return true;
+            int[] count = this.counts.get(type);
+            return count != null && count[0] > 1;
+        }
+
+        public void push(final Class<?> type) {
+            if (type != null) {
+                for (Class<?> assignableTo : ASSIGNABLE_TO.get(type)) {
+                    int[] count = this.counts.get(assignableTo);
+                    if (count == null) {
+                        this.counts.put(assignableTo, count = new int[1]);
                     }
+                    ++count[0];
                 }
             }
-            return false;
         }
 
-        public Stack append(final Class<?> value) {
-            return append(type(value));
+        public void pop(final Class<?> type) {
+            if (type != null) {
+                for (Class<?> assignableTo : ASSIGNABLE_TO.get(type)) {
+                    --this.counts.get(assignableTo)[0];
+                }
+            }
         }
 
-        public Stack append(final Type value) {
-            Type[] newStack = Arrays.copyOf(this.stack, this.stack.length + 1);
-            newStack[this.stack.length] = value;
-            return new Stack(newStack);
+        private static void addAssignableTo(final Class<?> type, final Set<Class<?>> assignableTo) {
+            if (type == null || !assignableTo.add(type)) {
+                return;
+            } else if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (Class<?> component : ASSIGNABLE_TO.get(type.getComponentType())) {
+                        assignableTo.add(Array.newInstance(component, 0).getClass());
+                    }
+                }
+                assignableTo.add(Object.class);
+                assignableTo.add(Cloneable.class);
+                assignableTo.add(Serializable.class);
+            } else {
+                addAssignableTo(type.getSuperclass(), assignableTo);
+                for (Class<?> iface : type.getInterfaces()) {
+                    addAssignableTo(iface, assignableTo);
+                }
+                if (type.isInterface()) {
+                    assignableTo.add(Object.class);
+                }
+            }
         }
     }
 
-    private static class CollectionSize {
+    static class CollectionSize {
 
         private final int min, max;
 
@@ -834,6 +1265,14 @@ public class BeanBuilder<T> {
         }
     }
 
+    private static final int DEFAULT_POOL_SIZE = 4096;
+
+    /**
+     * The immutable types whose random values can be drawn from a pool
+     */
+    private static final Class<?>[] INTERNED_TYPES = { String.class, BigDecimal.class, LocalDate.class,
+            LocalTime.class, LocalDateTime.class, ZonedDateTime.class, Duration.class, Instant.class };
+
     @SuppressWarnings("serial")
     private static final Map<Class<?>, ValueFactory> RANDOM_FACTORIES = new HashMap<Class<?>, ValueFactory>() {
 
@@ -899,7 +1338,7 @@ public class BeanBuilder<T> {
         }
     };
 
-    private static enum BeanBuilderType {
+    static enum BeanBuilderType {
         RANDOM, EMPTY, NULL
     }
 
@@ -0,0 +1,128 @@
+package org.exparity.stub.bean;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.exparity.stub.core.ValueFactory;
+
+/**
+ * An immutable configuration for building instances, created by {@link BeanBuilder#freeze()}. A template can be kept
+ * in a static field and used by many threads at once. Changing a template returns a new template which shares the
+ * configuration it has not changed with the original. For example
+ * </p>
+ *
+ * <pre>
+ * static final BeanTemplate&lt;Person&gt; PERSON = BeanBuilder.aRandomInstanceOf(Person.class)
+ *                        .collectionSizeOf(2)
+ *                        .freeze();
+ *
+ * Person anyone = PERSON.build();
+ * Person bob = PERSON.with("person.firstName", "Bob").build();
+ * </pre>
+ *
+ * Any factories or listeners configured on the template must be safe to call from more than one thread if the template
+ * is used by more than one thread.
+ *
+ * @author Stewart Bissett
+ */
+public final class BeanTemplate<T> {
+
+    private final BeanBuilder<T> snapshot;
+
+    BeanTemplate(final BeanBuilder<T> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Build an instance from this template
+     */
+    public T build() {
+        return this.snapshot.build();
+    }
+
+    /**
+     * Build the given number of instances from this template
+     *
+     * @param count the number of instances to build
+     */
+    public List<T> buildMany(final int count) {
+        return this.snapshot.buildMany(count);
+    }
+
+    /**
+     * Return an infinite, lazy stream of instances built from this template
+     */
+    public Stream<T> stream() {
+        return this.snapshot.stream();
+    }
+
+    /**
+     * Build the given number of instances from this template in parallel on the common {@link ForkJoinPool}. The same
+     * seed builds the same instances.
+     *
+     * @param count the number of instances to build
+     * @param seed the seed the random values of every instance are derived from
+     */
+    public List<T> buildParallel(final int count, final long seed) {
+        return this.snapshot.buildParallel(count, seed);
+    }
+
+    /**
+     * Return a template which populates the given property or path with the supplied value. For example
+     * </p>
+     *
+     * <pre>
+     * Person bob = PERSON.with("person.firstName", "Bob").build();
+     * </pre>
+     *
+     * @param propertyOrPathName the property or path name to set the value on
+     * @param value the value to assign the property or path
+     */
+    public BeanTemplate<T> with(final String propertyOrPathName, final Object value) {
+        return toBuilder().with(propertyOrPathName, value).freeze();
+    }
+
+    /**
+     * Return a template which populates the given property or path with a value created by the supplied value factory
+     *
+     * @param propertyOrPathName the property or path name to set the value on
+     * @param factory the factory to use to create the value
+     */
+    public BeanTemplate<T> with(final String propertyOrPathName, final ValueFactory<?> factory) {
+        return toBuilder().with(propertyOrPathName, factory).freeze();
+    }
+
+    /**
+     * Return a template which populates any properties of the given type with a value created by the supplied value
+     * factory
+     *
+     * @param type the type of property to use the factory for
+     * @param factory the factory to use to create the value
+     */
+    public <V> BeanTemplate<T> with(final Class<V> type, final ValueFactory<V> factory) {
+        return toBuilder().with(type, factory).freeze();
+    }
+
+    /**
+     * Return a template which excludes the given path from being populated
+     *
+     * @param path the path to exclude
+     */
+    public BeanTemplate<T> excludePath(final String path) {
+        return toBuilder().excludePath(path).freeze();
+    }
+
+    /**
+     * Return a new builder which starts with the configuration of this template. Changes made to the builder do not
+     * affect this template. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = PERSON.toBuilder().excludeProperty("siblings").collectionSizeOf(1).build();
+     * </pre>
+     */
+    public BeanBuilder<T> toBuilder() {
+        return BeanBuilder.derivedFrom(this.snapshot);
+    }
+}
@@ -0,0 +1,72 @@
+package org.exparity.stub.bean;
+
+import java.util.function.Supplier;
+
+/**
+ * Receives the events raised by a {@link BeanBuilder} as it populates a bean. A listener is registered with
+ * {@link BeanBuilder#listener(BuildListener)} and, when none is registered, the builder computes nothing for the
+ * events. Each method does nothing by default so a listener only implements the events it needs. Paths are supplied
+ * unrendered and are only converted to a string when the listener calls {@link Supplier#get()}. For example
+ * </p>
+ *
+ * <pre>
+ * CountingBuildListener counts = BuildListeners.counting();
+ * Person aPerson = BeanBuilder.aRandomInstanceOf(Person.class).listener(counts).build();
+ * </pre>
+ *
+ * @author Stewart Bissett
+ * @see BuildListeners
+ */
+public interface BuildListener {
+
+    /**
+     * The reasons a property is left unpopulated
+     */
+    public enum SkipReason {
+        /**
+         * The property or path was excluded from the builder
+         */
+        EXCLUDED,
+        /**
+         * The property already had a value, for example one assigned by the constructor
+         */
+        ALREADY_SET,
+        /**
+         * The property is nested within a path which was assigned a value
+         */
+        CHILD_OF_ASSIGNED_PATH
+    }
+
+    /**
+     * Called when a value is created by a factory
+     *
+     * @param type the type of value requested
+     * @param value the value created, or null
+     * @param nanos the nanoseconds taken to create the value
+     */
+    public default void valueCreated(final Class<?> type, final Object value, final long nanos) {}
+
+    /**
+     * Called when a value is assigned to a property
+     *
+     * @param path the path of the property
+     * @param value the value assigned
+     */
+    public default void propertyAssigned(final Supplier<String> path, final Object value) {}
+
+    /**
+     * Called when a property is left unpopulated
+     *
+     * @param path the path of the property
+     * @param reason the reason the property was skipped
+     */
+    public default void propertySkipped(final Supplier<String> path, final SkipReason reason) {}
+
+    /**
+     * Called when a property is left unpopulated to avoid populating an infinitely deep graph
+     *
+     * @param path the path of the property
+     * @param type the type which recurs along the path
+     */
+    public default void recursionCut(final Supplier<String> path, final Class<?> type) {}
+}
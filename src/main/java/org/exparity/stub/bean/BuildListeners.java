@@ -0,0 +1,113 @@
+package org.exparity.stub.bean;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Static factory for the {@link BuildListener} instances which can be registered with a {@link BeanBuilder}. For
+ * example
+ * </p>
+ *
+ * <pre>
+ * Person aPerson = BeanBuilder.aRandomInstanceOf(Person.class).listener(BuildListeners.jfr()).build();
+ * </pre>
+ *
+ * @author Stewart Bissett
+ */
+public abstract class BuildListeners {
+
+    /**
+     * Return a new listener which counts the events raised by the builders it is registered with
+     */
+    public static CountingBuildListener counting() {
+        return new CountingBuildListener();
+    }
+
+    /**
+     * Return a listener which records each event as a Java Flight Recorder event so builders can be profiled without
+     * enabling trace logging. Requires a JVM which includes the <code>jdk.jfr</code> API, for example Java 8u262 or
+     * later.
+     */
+    public static BuildListener jfr() {
+        return new JfrBuildListener();
+    }
+
+    /**
+     * Return a listener which logs each event at trace level to the {@link BeanBuilder} logger
+     */
+    public static BuildListener logging() {
+        return LOGGING;
+    }
+
+    /**
+     * Return a listener which passes each event to the first listener and then the second
+     */
+    static BuildListener both(final BuildListener first, final BuildListener second) {
+        return first == null ? second : new BuildListener() {
+
+            @Override
+            public void valueCreated(final Class<?> type, final Object value, final long nanos) {
+                first.valueCreated(type, value, nanos);
+                second.valueCreated(type, value, nanos);
+            }
+
+            @Override
+            public void propertyAssigned(final Supplier<String> path, final Object value) {
+                first.propertyAssigned(path, value);
+                second.propertyAssigned(path, value);
+            }
+
+            @Override
+            public void propertySkipped(final Supplier<String> path, final SkipReason reason) {
+                first.propertySkipped(path, reason);
+                second.propertySkipped(path, reason);
+            }
+
+            @Override
+            public void recursionCut(final Supplier<String> path, final Class<?> type) {
+                first.recursionCut(path, type);
+                second.recursionCut(path, type);
+            }
+        };
+    }
+
+    private static final BuildListener LOGGING = new BuildListener() {
+
+        private final Logger log = LoggerFactory.getLogger(BeanBuilder.class);
+
+        @Override
+        public void valueCreated(final Class<?> type, final Object value, final long nanos) {
+            if (this.log.isTraceEnabled()) {
+                this.log.trace("Create Value [{}] for Type [{}]", value, type.getSimpleName());
+            }
+        }
+
+        @Override
+        public void propertyAssigned(final Supplier<String> path, final Object value) {
+            if (this.log.isTraceEnabled()) {
+                this.log.trace("Assign {} value [{}]", path.get(), value);
+            }
+        }
+
+        @Override
+        public void propertySkipped(final Supplier<String> path, final SkipReason reason) {
+            if (this.log.isTraceEnabled()) {
+                this.log.trace("Ignore {}. {}", path.get(), reason);
+            }
+        }
+
+        @Override
+        public void recursionCut(final Supplier<String> path, final Class<?> type) {
+            if (this.log.isTraceEnabled()) {
+                this.log.trace("Ignore {}. Avoids stack overflow caused by type {}", path.get(), type.getSimpleName());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "LoggingBuildListener";
+        }
+    };
+}
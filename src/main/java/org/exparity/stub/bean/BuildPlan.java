@@ -0,0 +1,321 @@
+package org.exparity.stub.bean;
+
+import static org.apache.commons.lang.StringUtils.lowerCase;
+import static org.exparity.beans.Type.type;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.exparity.beans.core.BeanNamingStrategy;
+import org.exparity.beans.core.TypeProperty;
+import org.exparity.stub.bean.BeanBuilder.BeanBuilderType;
+import org.exparity.stub.core.ValueFactory;
+import org.exparity.stub.random.RandomBuilder;
+
+/**
+ * The steps the {@link BeanBuilder} follows to populate an instance of a type. The properties of the type, their
+ * element types, their bound accessors, and the factories which create their values by default are resolved once for
+ * each naming strategy and builder type so populating an instance only walks the precomputed steps. A plan is
+ * immutable and is cached against the lifetime of the type it was resolved for.
+ * </p>
+ * <p>
+ * A plan for field access has a step for each instance field declared by the type and its super types, other than
+ * those declared by the JDK, in place of a step for each property.
+ * </p>
+ *
+ * @author Stewart Bissett
+ */
+final class BuildPlan {
+
+    private static final ClassValue<ConcurrentMap<Key, BuildPlan>> PLANS = new ClassValue<ConcurrentMap<Key, BuildPlan>>() {
+
+        @Override
+        protected ConcurrentMap<Key, BuildPlan> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Return the plan for populating instances of the type
+     *
+     * @param type the type of the instances
+     * @param naming the strategy which names the properties of the type
+     * @param builderType the type of builder the plan is for
+     * @param fieldAccess true to populate the fields of the type rather than its properties
+     */
+    static BuildPlan of(final Class<?> type,
+            final BeanNamingStrategy naming,
+            final BeanBuilderType builderType,
+            final boolean fieldAccess) {
+        return PLANS.get(type).computeIfAbsent(new Key(naming, builderType, fieldAccess),
+                k -> new BuildPlan(type, naming, builderType, fieldAccess));
+    }
+
+    private final List<Step> steps;
+
+    private BuildPlan(final Class<?> type,
+            final BeanNamingStrategy naming,
+            final BeanBuilderType builderType,
+            final boolean fieldAccess) {
+        List<Step> steps = new ArrayList<>();
+        if (fieldAccess) {
+            for (Class<?> declaring = type; declaring != null
+                    && declaring.getClassLoader() != null; declaring = declaring.getSuperclass()) {
+                for (Field field : declaring.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        steps.add(new Step(field, builderType));
+                    }
+                }
+            }
+        } else {
+            for (TypeProperty property : type(type, naming).propertyList()) {
+                steps.add(new Step(property, builderType));
+            }
+        }
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Return a step for each property, or field, of the type
+     */
+    List<Step> getSteps() {
+        return this.steps;
+    }
+
+    enum Kind {
+        ARRAY, MAP, SET, LIST, VALUE
+    }
+
+    /**
+     * The resolved type information for populating a single property or field
+     */
+    static final class Step {
+
+        private final String name;
+        private final PropertyAccessor accessor;
+        private final Kind kind;
+        private final Class<?> type, elementType, valueType;
+        private final Class<?>[] typeParameters;
+        private final ValueFactory<?> factory, valueFactory;
+        private final String unresolvedElementType;
+        private final String unresolvedValueType;
+
+        private Step(final TypeProperty property, final BeanBuilderType builderType) {
+            this(property.getName(),
+                    property.getType(),
+                    property.getMutator().getGenericParameterTypes()[0],
+                    property.getTypeParameters().toArray(new Class<?>[0]),
+                    new PropertyAccessor(property),
+                    builderType,
+                    false);
+        }
+
+        private Step(final Field field, final BeanBuilderType builderType) {
+            this(lowerCase(field.getName()),
+                    field.getType(),
+                    field.getGenericType(),
+                    typeParametersOf(field.getGenericType()),
+                    new PropertyAccessor(field),
+                    builderType,
+                    true);
+        }
+
+        private Step(final String name,
+                final Class<?> type,
+                final java.lang.reflect.Type genericType,
+                final Class<?>[] typeParameters,
+                final PropertyAccessor accessor,
+                final BeanBuilderType builderType,
+                final boolean fieldAccess) {
+            this.name = name;
+            this.accessor = accessor;
+            this.type = type;
+            this.typeParameters = typeParameters;
+            Class<?> elementType = null;
+            String unresolvedElementType = null;
+            if (type.isArray()) {
+                this.kind = Kind.ARRAY;
+                elementType = type.getComponentType();
+            } else {
+                this.kind = Map.class.isAssignableFrom(type) ? Kind.MAP
+                        : Set.class.isAssignableFrom(type) ? Kind.SET
+                                : Collection.class.isAssignableFrom(type) ? Kind.LIST : Kind.VALUE;
+                if (this.kind != Kind.VALUE) {
+                    try {
+                        elementType = getActualType(genericType, 0);
+                    } catch (IllegalArgumentException e) {
+                        // Only fail if the builder needs to create the elements
+                        unresolvedElementType = e.getMessage();
+                    }
+                }
+            }
+            this.elementType = elementType;
+            this.unresolvedElementType = unresolvedElementType;
+            java.lang.reflect.Type valueArgument = this.kind == Kind.MAP ? typeArgumentOf(genericType, 1) : null;
+            // Only fail if the builder needs to create the values
+            this.valueType = valueArgument instanceof Class ? (Class<?>) valueArgument : null;
+            this.unresolvedValueType = this.kind == Kind.MAP && this.valueType == null ? genericType.getTypeName()
+                    : null;
+            this.factory = BeanBuilder.defaultFactoryFor(this.kind == Kind.VALUE ? type : elementType,
+                    builderType,
+                    fieldAccess);
+            this.valueFactory = this.kind == Kind.MAP ? mapValueFactoryFor(this.valueType, builderType, fieldAccess)
+                    : null;
+        }
+
+        /**
+         * Return the accessor bound to the getter and setter of the property
+         */
+        public PropertyAccessor getAccessor() {
+            return this.accessor;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Kind getKind() {
+            return this.kind;
+        }
+
+        public Class<?> getType() {
+            return this.type;
+        }
+
+        /**
+         * Return the component type of an array, the element type of a collection, or the key type of a map
+         */
+        public Class<?> getElementType() {
+            if (this.unresolvedElementType != null) {
+                throw new IllegalArgumentException(this.unresolvedElementType);
+            }
+            return this.elementType;
+        }
+
+        /**
+         * Return the value type of a map
+         *
+         * @throws BeanBuilderException if the value type is not a class, for example a parameterized type
+         */
+        public Class<?> getValueType() {
+            if (this.valueType == null) {
+                throw new BeanBuilderException("Failed to resolve the value type of the map property '" + this.name
+                        + "'. Type ["
+                        + this.unresolvedValueType
+                        + "]");
+            }
+            return this.valueType;
+        }
+
+        /**
+         * Return the factory which creates the values of a map, or the elements of the values of a map of arrays, when no
+         * other factory is configured on the builder
+         */
+        public ValueFactory<?> getValueFactory() {
+            return this.valueFactory;
+        }
+
+        public Class<?>[] getTypeParameters() {
+            return this.typeParameters;
+        }
+
+        /**
+         * Return the factory which creates the property value, or the elements or keys of a collection, array, or map,
+         * when no other factory is configured on the builder
+         */
+        public ValueFactory<?> getFactory() {
+            return this.factory;
+        }
+
+        /**
+         * Return the factory for the values of a map. A random value of an interface or abstract type is stubbed by the
+         * {@link RandomBuilder} unless a type override configured on the builder replaces it.
+         */
+        private static ValueFactory<?> mapValueFactoryFor(final Class<?> valueType,
+                final BeanBuilderType builderType,
+                final boolean fieldAccess) {
+            if (valueType == null) {
+                return null;
+            } else if (valueType.isArray()) {
+                return BeanBuilder.defaultFactoryFor(valueType.getComponentType(), builderType, fieldAccess);
+            } else if (!valueType.isEnum()
+                    && (valueType.isInterface() || Modifier.isAbstract(valueType.getModifiers()))) {
+                return builderType == BeanBuilderType.RANDOM ? () -> RandomBuilder.aRandomInstanceOf(valueType) : null;
+            }
+            return BeanBuilder.defaultFactoryFor(valueType, builderType, fieldAccess);
+        }
+
+        private static java.lang.reflect.Type typeArgumentOf(final java.lang.reflect.Type genericType,
+                final int index) {
+            if (genericType instanceof ParameterizedType) {
+                java.lang.reflect.Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+                return index < arguments.length ? arguments[index] : null;
+            }
+            return null;
+        }
+
+        private static Class<?>[] typeParametersOf(final java.lang.reflect.Type genericType) {
+            List<Class<?>> typeParameters = new ArrayList<>();
+            if (genericType instanceof ParameterizedType) {
+                for (java.lang.reflect.Type argument : ((ParameterizedType) genericType).getActualTypeArguments()) {
+                    if (argument instanceof Class) {
+                        typeParameters.add((Class<?>) argument);
+                    } else if (argument instanceof ParameterizedType) {
+                        typeParameters.add((Class<?>) ((ParameterizedType) argument).getRawType());
+                    }
+                }
+            }
+            return typeParameters.toArray(new Class<?>[0]);
+        }
+
+        private static Class<?> getActualType(final java.lang.reflect.Type type, final int typeOrdinal) {
+            if (type instanceof Class) {
+                return (Class<?>) type;
+            } else if (type instanceof ParameterizedType) {
+                return getActualType(((ParameterizedType) type).getActualTypeArguments()[typeOrdinal], 0);
+            } else {
+                throw new IllegalArgumentException("Unknown type subclass '" + type.getClass());
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final BeanNamingStrategy naming;
+        private final BeanBuilderType builderType;
+        private final boolean fieldAccess;
+
+        private Key(final BeanNamingStrategy naming, final BeanBuilderType builderType, final boolean fieldAccess) {
+            this.naming = naming;
+            this.builderType = builderType;
+            this.fieldAccess = fieldAccess;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.naming == other.naming && this.builderType == other.builderType
+                    && this.fieldAccess == other.fieldAccess;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(this.naming) * 31 + this.builderType.hashCode()) * 31
+                    + Boolean.hashCode(this.fieldAccess);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.exparity.stub.bean;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BuildListener} which counts the events raised by the builders it is registered with. A single instance can
+ * be shared by builders on different threads.
+ *
+ * @author Stewart Bissett
+ * @see BuildListeners#counting()
+ */
+public final class CountingBuildListener implements BuildListener {
+
+    private final LongAdder valuesCreated = new LongAdder(), valueNanos = new LongAdder(),
+            propertiesAssigned = new LongAdder(), propertiesSkipped = new LongAdder(),
+            recursionsCut = new LongAdder();
+
+    CountingBuildListener() {}
+
+    @Override
+    public void valueCreated(final Class<?> type, final Object value, final long nanos) {
+        this.valuesCreated.increment();
+        this.valueNanos.add(nanos);
+    }
+
+    @Override
+    public void propertyAssigned(final Supplier<String> path, final Object value) {
+        this.propertiesAssigned.increment();
+    }
+
+    @Override
+    public void propertySkipped(final Supplier<String> path, final SkipReason reason) {
+        this.propertiesSkipped.increment();
+    }
+
+    @Override
+    public void recursionCut(final Supplier<String> path, final Class<?> type) {
+        this.recursionsCut.increment();
+    }
+
+    public long getValuesCreated() {
+        return this.valuesCreated.sum();
+    }
+
+    /**
+     * Return the nanoseconds spent creating values
+     */
+    public long getValueNanos() {
+        return this.valueNanos.sum();
+    }
+
+    public long getPropertiesAssigned() {
+        return this.propertiesAssigned.sum();
+    }
+
+    public long getPropertiesSkipped() {
+        return this.propertiesSkipped.sum();
+    }
+
+    public long getRecursionsCut() {
+        return this.recursionsCut.sum();
+    }
+
+    /**
+     * Reset all counts to zero
+     */
+    public void reset() {
+        this.valuesCreated.reset();
+        this.valueNanos.reset();
+        this.propertiesAssigned.reset();
+        this.propertiesSkipped.reset();
+        this.recursionsCut.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CountingBuildListener [valuesCreated=" + getValuesCreated() + ", propertiesAssigned="
+                + getPropertiesAssigned() + ", propertiesSkipped=" + getPropertiesSkipped() + ", recursionsCut="
+                + getRecursionsCut() + "]";
+    }
+}
@@ -0,0 +1,113 @@
+package org.exparity.stub.bean;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A {@link BuildListener} which records each event as a Java Flight Recorder event in the <code>Exparity Stub</code>
+ * category. Events are only created while a recording has them enabled.
+ *
+ * @author Stewart Bissett
+ * @see BuildListeners#jfr()
+ */
+class JfrBuildListener implements BuildListener {
+
+    @Override
+    public void valueCreated(final Class<?> type, final Object value, final long nanos) {
+        ValueCreatedEvent event = new ValueCreatedEvent();
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void propertyAssigned(final Supplier<String> path, final Object value) {
+        PropertyAssignedEvent event = new PropertyAssignedEvent();
+        if (event.shouldCommit()) {
+            event.path = path.get();
+            event.type = value != null ? value.getClass() : null;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void propertySkipped(final Supplier<String> path, final SkipReason reason) {
+        PropertySkippedEvent event = new PropertySkippedEvent();
+        if (event.shouldCommit()) {
+            event.path = path.get();
+            event.reason = reason.name();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void recursionCut(final Supplier<String> path, final Class<?> type) {
+        RecursionCutEvent event = new RecursionCutEvent();
+        if (event.shouldCommit()) {
+            event.path = path.get();
+            event.type = type;
+            event.commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JfrBuildListener";
+    }
+
+    @Name("org.exparity.stub.ValueCreated")
+    @Label("Value Created")
+    @Category("Exparity Stub")
+    static class ValueCreatedEvent extends Event {
+
+        @Label("Type")
+        Class<?> type;
+
+        @Label("Creation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    @Name("org.exparity.stub.PropertyAssigned")
+    @Label("Property Assigned")
+    @Category("Exparity Stub")
+    static class PropertyAssignedEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Type")
+        Class<?> type;
+    }
+
+    @Name("org.exparity.stub.PropertySkipped")
+    @Label("Property Skipped")
+    @Category("Exparity Stub")
+    static class PropertySkippedEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Reason")
+        String reason;
+    }
+
+    @Name("org.exparity.stub.RecursionCut")
+    @Label("Recursion Cut")
+    @Category("Exparity Stub")
+    static class RecursionCutEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Type")
+        Class<?> type;
+    }
+}
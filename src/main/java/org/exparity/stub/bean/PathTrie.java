@@ -0,0 +1,272 @@
+package org.exparity.stub.bean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.exparity.stub.bean.BeanBuilder.CollectionSize;
+import org.exparity.stub.core.ValueFactory;
+
+/**
+ * The path overrides, path exclusions, and collection sizes configured on a {@link BeanBuilder} compiled into a trie of
+ * path segments. The builder follows the trie one step for each property or index it descends into so finding the
+ * rules for a path neither depends on the number of rules nor builds any path strings. For example the paths
+ *
+ * <pre>
+ * person.siblings.firstname
+ * person.siblings[0].surname
+ * </pre>
+ *
+ * share the nodes for <code>person</code> and <code>siblings</code>. A rule for a path without indexes applies to
+ * every index of the collections along the path, a rule for a path with indexes applies only to those indexes.
+ * <p>
+ * A trie is never modified once created. Adding a rule returns a new trie which copies only the nodes along the path
+ * of the rule and shares the rest, so builders derived from one another can share their rules.
+ * </p>
+ *
+ * @author Stewart Bissett
+ */
+class PathTrie {
+
+    private final Node root;
+
+    PathTrie() {
+        this(new Node());
+    }
+
+    private PathTrie(final Node root) {
+        this.root = root;
+    }
+
+    public PathTrie withFactory(final String path, final ValueFactory<?> factory) {
+        return with(path, node -> node.factory = factory);
+    }
+
+    public PathTrie withExcluded(final String path) {
+        return with(path, node -> node.excluded = true);
+    }
+
+    public PathTrie withCollectionSize(final String path, final CollectionSize collectionSize) {
+        return with(path, node -> node.collectionSize = collectionSize);
+    }
+
+    /**
+     * Return the path of the root instance with the given name
+     */
+    public Path root(final String name) {
+        Node node = this.root.child(name);
+        return new Path(null, name, -1, null, node, node, false);
+    }
+
+    private PathTrie with(final String path, final Consumer<Node> rule) {
+        Node root = this.root.copy(), node = root;
+        for (String segment : path.split("\\.", -1)) {
+            int index = segment.indexOf('[');
+            node = node.addChild(index < 0 ? segment : segment.substring(0, index));
+            while (index >= 0) {
+                int end = segment.indexOf(']', index);
+                if (end < 0) {
+                    node = node.addChild(segment.substring(index));
+                    break;
+                }
+                node = node.addIndex(segment.substring(index + 1, end));
+                index = segment.indexOf('[', end);
+            }
+        }
+        rule.accept(node);
+        return new PathTrie(root);
+    }
+
+    private static class Node {
+
+        private Map<String, Node> children;
+        private Map<Integer, Node> indexes;
+        private ValueFactory<?> factory;
+        private boolean excluded;
+        private CollectionSize collectionSize;
+
+        private Node child(final String name) {
+            return this.children != null ? this.children.get(name) : null;
+        }
+
+        private Node index(final int index) {
+            return this.indexes != null ? this.indexes.get(index) : null;
+        }
+
+        private Node key(final Object key) {
+            if (key instanceof Integer) {
+                return index((Integer) key);
+            }
+            return this.children != null ? this.children.get("[" + key + "]") : null;
+        }
+
+        /**
+         * Return a copy of this node which can be modified without affecting this node. Its children are shared until
+         * they are replaced by {@link #addChild(String)} or {@link #addIndex(String)}.
+         */
+        private Node copy() {
+            Node copy = new Node();
+            copy.children = this.children != null ? new HashMap<>(this.children) : null;
+            copy.indexes = this.indexes != null ? new HashMap<>(this.indexes) : null;
+            copy.factory = this.factory;
+            copy.excluded = this.excluded;
+            copy.collectionSize = this.collectionSize;
+            return copy;
+        }
+
+        private Node addChild(final String name) {
+            if (this.children == null) {
+                this.children = new HashMap<>();
+            }
+            Node child = this.children.get(name);
+            child = child != null ? child.copy() : new Node();
+            this.children.put(name, child);
+            return child;
+        }
+
+        private Node addIndex(final String index) {
+            try {
+                int value = Integer.parseInt(index);
+                if (this.indexes == null) {
+                    this.indexes = new HashMap<>();
+                }
+                Node child = this.indexes.get(value);
+                child = child != null ? child.copy() : new Node();
+                this.indexes.put(value, child);
+                return child;
+            } catch (NumberFormatException e) {
+                // The builder only creates numeric indexes so the rule can never apply
+                return addChild("[" + index + "]");
+            }
+        }
+    }
+
+    /**
+     * A position in the graph being built together with the nodes of the trie which match it. The exact node matches
+     * the path including its indexes, the unindexed node matches the path with its indexes removed. The path is only
+     * rendered as a string when requested.
+     */
+    static final class Path implements Supplier<String> {
+
+        private final Path parent;
+        private final String name;
+        private final int index;
+        private final Object key;
+        private final Node exact, unindexed;
+        private final boolean childOfAssignedPath;
+
+        private Path(final Path parent,
+                final String name,
+                final int index,
+                final Object key,
+                final Node exact,
+                final Node unindexed,
+                final boolean childOfAssignedPath) {
+            this.parent = parent;
+            this.name = name;
+            this.index = index;
+            this.key = key;
+            this.exact = exact;
+            this.unindexed = unindexed;
+            this.childOfAssignedPath = childOfAssignedPath;
+        }
+
+        public Path append(final String name) {
+            return new Path(this,
+                    name,
+                    -1,
+                    null,
+                    this.exact != null ? this.exact.child(name) : null,
+                    this.unindexed != null ? this.unindexed.child(name) : null,
+                    this.childOfAssignedPath || (this.unindexed != null && this.unindexed.factory != null));
+        }
+
+        public Path appendIndex(final int index) {
+            return new Path(this,
+                    null,
+                    index,
+                    null,
+                    this.exact != null ? this.exact.index(index) : null,
+                    this.unindexed,
+                    this.childOfAssignedPath);
+        }
+
+        /**
+         * Return the path of the value held against a key of a map. A rule for the path with the key as its index, for
+         * example <code>person.addresses[home]</code>, applies only to the value for that key.
+         */
+        public Path appendKey(final Object key) {
+            return new Path(this,
+                    null,
+                    -1,
+                    key,
+                    this.exact != null ? this.exact.key(key) : null,
+                    this.unindexed,
+                    this.childOfAssignedPath);
+        }
+
+        /**
+         * Return the factory configured for this path, or null if none is configured
+         */
+        public ValueFactory<?> getFactory() {
+            if (this.exact != null && this.exact.factory != null) {
+                return this.exact.factory;
+            } else if (this.name != null && this.unindexed != null) {
+                return this.unindexed.factory;
+            }
+            return null;
+        }
+
+        public boolean isExcluded() {
+            return (this.exact != null && this.exact.excluded)
+                    || (this.name != null && this.unindexed != null && this.unindexed.excluded);
+        }
+
+        /**
+         * Return the collection size configured for this path, or null if none is configured
+         */
+        public CollectionSize getCollectionSize() {
+            if (this.exact != null && this.exact.collectionSize != null) {
+                return this.exact.collectionSize;
+            } else if (this.name != null && this.unindexed != null) {
+                return this.unindexed.collectionSize;
+            }
+            return null;
+        }
+
+        /**
+         * Return true if a factory is configured for a path, without indexes, which this path is nested within
+         */
+        public boolean isChildOfAssignedPath() {
+            return this.childOfAssignedPath;
+        }
+
+        @Override
+        public String get() {
+            return toString();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder path = new StringBuilder();
+            appendTo(path);
+            return path.toString();
+        }
+
+        private void appendTo(final StringBuilder path) {
+            if (this.parent != null) {
+                this.parent.appendTo(path);
+            }
+            if (this.key != null) {
+                path.append('[').append(this.key).append(']');
+            } else if (this.name == null) {
+                path.append('[').append(this.index).append(']');
+            } else if (this.parent != null) {
+                path.append('.').append(this.name);
+            } else {
+                path.append(this.name);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.exparity.stub.bean;
+
+/**
+ * An immutable map which shares its structure with the map it was created from. The entries are held in a trie indexed
+ * by the bits of each key's hash code, four bits to a level, so adding an entry copies only the nodes along the path to
+ * the entry whatever the number of entries. Builders derived from one another can then each add a rule without copying
+ * the rules they share. Keys whose hash codes are equal are held in a list at the bottom of the trie.
+ *
+ * @author Stewart Bissett
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 4, WIDTH = 1 << BITS, MASK = WIDTH - 1, LAST_SHIFT = Integer.SIZE - BITS;
+
+    private final Object[] root;
+
+    PersistentMap() {
+        this(new Object[WIDTH]);
+    }
+
+    private PersistentMap(final Object[] root) {
+        this.root = root;
+    }
+
+    /**
+     * Return a map which holds the entries of this map and the given entry in place of any entry for the same key
+     */
+    public PersistentMap<K, V> with(final K key, final V value) {
+        return new PersistentMap<>(with(this.root, new Entry<>(key, value, null), 0));
+    }
+
+    /**
+     * Return the value held for the given key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        int hash = key.hashCode();
+        Object slot = this.root[hash & MASK];
+        for (int shift = BITS; slot instanceof Object[]; shift += BITS) {
+            slot = ((Object[]) slot)[(hash >>> shift) & MASK];
+        }
+        for (Entry<?, ?> entry = (Entry<?, ?>) slot; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.key.equals(key)) {
+                return (V) entry.value;
+            }
+        }
+        return null;
+    }
+
+    private static Object[] with(final Object[] node, final Entry<?, ?> added, final int shift) {
+        Object[] copy = node.clone();
+        int index = (added.hash >>> shift) & MASK;
+        Object slot = copy[index];
+        if (slot == null) {
+            copy[index] = added;
+        } else if (slot instanceof Object[]) {
+            copy[index] = with((Object[]) slot, added, shift + BITS);
+        } else {
+            Entry<?, ?> existing = (Entry<?, ?>) slot;
+            if (shift == LAST_SHIFT || existing.hash == added.hash) {
+                copy[index] = replace(existing, added);
+            } else {
+                Object[] child = new Object[WIDTH];
+                child[(existing.hash >>> (shift + BITS)) & MASK] = existing;
+                copy[index] = with(child, added, shift + BITS);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Return the list of entries with the added entry at its head and without any existing entry for the same key
+     */
+    private static Entry<?, ?> replace(final Entry<?, ?> existing, final Entry<?, ?> added) {
+        if (existing == null) {
+            return added;
+        }
+        Entry<?, ?> rest = replace(existing.next, added);
+        return existing.key.equals(added.key) ? rest : new Entry<>(existing.key, existing.value, rest);
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final int hash;
+        private final Entry<?, ?> next;
+
+        private Entry(final K key, final V value, final Entry<?, ?> next) {
+            this.key = key;
+            this.value = value;
+            this.hash = key.hashCode();
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.exparity.stub.bean;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.exparity.beans.core.BeanPropertyException;
+import org.exparity.beans.core.TypeProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes a single property of a bean. The accessor and mutator are bound once to a generated
+ * {@link Function} and {@link BiConsumer} so each read and write is a direct call rather than a reflective
+ * {@link Method#invoke(Object, Object...)}. Methods which cannot be bound, for example those of a non-public type, are
+ * called through the {@link TypeProperty}. A field is read and written through a {@link MethodHandle} unless it is
+ * final, in which case it is written through {@link Field#set(Object, Object)}.
+ *
+ * @author Stewart Bissett
+ */
+final class PropertyAccessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PropertyAccessor.class);
+
+    private final String mutator, typeName;
+    private final boolean primitive;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+
+    PropertyAccessor(final TypeProperty property) {
+        this.mutator = "Method '" + property.getMutator().getName() + "'";
+        this.typeName = property.getTypeCanonicalName();
+        this.primitive = property.getMutator().getParameterTypes()[0].isPrimitive();
+        this.getter = bindGetter(property);
+        this.setter = bindSetter(property);
+    }
+
+    PropertyAccessor(final Field field) {
+        field.setAccessible(true);
+        this.mutator = "Field '" + field.getName() + "'";
+        this.typeName = field.getType().getCanonicalName();
+        this.primitive = field.getType().isPrimitive();
+        this.getter = bindGetter(field);
+        this.setter = bindSetter(field);
+    }
+
+    public Object getValue(final Object instance) {
+        return this.getter.apply(instance);
+    }
+
+    public void setValue(final Object instance, final Object value) {
+        if (value == null && this.primitive) {
+            throw new BeanPropertyException(describeMismatch(instance, value));
+        }
+        try {
+            this.setter.accept(instance, value);
+        } catch (ClassCastException | IllegalArgumentException e) {
+            throw new BeanPropertyException(describeMismatch(instance, value), e);
+        }
+    }
+
+    private String describeMismatch(final Object instance, final Object value) {
+        return this.mutator + " on '" + instance.getClass().getCanonicalName() + "' expected arguments '"
+                + this.typeName + "' but was supplied a '" + (value != null ? value.getClass().getSimpleName() : "null")
+                + "'";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bindGetter(final TypeProperty property) {
+        Method accessor = property.getAccessor();
+        if (isBindable(accessor)) {
+            try {
+                return (Function<Object, Object>) bind(accessor,
+                        Function.class,
+                        "apply",
+                        methodType(Object.class, Object.class),
+                        methodType(accessor.getReturnType(), accessor.getDeclaringClass()).wrap());
+            } catch (Throwable e) {
+                LOG.debug("Fallback to reflection for [{}]. Error [{}]", accessor, e.getMessage());
+            }
+        }
+        return property::getValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> bindSetter(final TypeProperty property) {
+        Method mutator = property.getMutator();
+        if (isBindable(mutator)) {
+            try {
+                return (BiConsumer<Object, Object>) bind(mutator,
+                        BiConsumer.class,
+                        "accept",
+                        methodType(void.class, Object.class, Object.class),
+                        methodType(void.class,
+                                mutator.getDeclaringClass(),
+                                methodType(mutator.getParameterTypes()[0]).wrap().returnType()));
+            } catch (Throwable e) {
+                LOG.debug("Fallback to reflection for [{}]. Error [{}]", mutator, e.getMessage());
+            }
+        }
+        return property::setValue;
+    }
+
+    private static Function<Object, Object> bindGetter(final Field field) {
+        MethodHandle getter;
+        try {
+            getter = MethodHandles.lookup().unreflectGetter(field).asType(methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new BeanPropertyException("Cannot read field '" + field.getName() + "' on '"
+                    + field.getDeclaringClass().getCanonicalName() + "'", e);
+        }
+        return instance -> {
+            try {
+                return getter.invokeExact(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanPropertyException("Failed to read field '" + field.getName() + "'", e);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> bindSetter(final Field field) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            return (instance, value) -> {
+                try {
+                    field.set(instance, value);
+                } catch (IllegalAccessException e) {
+                    throw new BeanPropertyException("Failed to write field '" + field.getName() + "'", e);
+                }
+            };
+        }
+        MethodHandle setter;
+        try {
+            setter = MethodHandles.lookup()
+                    .unreflectSetter(field)
+                    .asType(methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new BeanPropertyException("Cannot write field '" + field.getName() + "' on '"
+                    + field.getDeclaringClass().getCanonicalName() + "'", e);
+        }
+        return (instance, value) -> {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanPropertyException("Failed to write field '" + field.getName() + "'", e);
+            }
+        };
+    }
+
+    private static Object bind(final Method method,
+            final Class<?> functionalInterface,
+            final String name,
+            final MethodType erasedType,
+            final MethodType instantiatedType) throws Throwable {
+        MethodHandle target = MethodHandles.publicLookup().unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(),
+                name,
+                methodType(functionalInterface),
+                erasedType,
+                target,
+                instantiatedType);
+        return site.getTarget().invoke();
+    }
+
+    private static boolean isBindable(final Method method) {
+        Class<?> type = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
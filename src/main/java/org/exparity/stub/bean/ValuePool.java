@@ -0,0 +1,51 @@
+package org.exparity.stub.bean;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.exparity.stub.core.ValueFactory;
+import org.exparity.stub.random.RandomSource;
+
+/**
+ * A {@link ValueFactory} which draws its values from a bounded pool of immutable values. Each value is picked from a
+ * random slot of the pool and a slot is filled by the underlying factory the first time it is picked, so at most the
+ * size of the pool distinct values are created. Slots picked while the current thread is generating values with a seed
+ * are filled from a seed derived from the pool's seed and the slot's index, so the value held in a slot does not depend
+ * on the order, or the threads, in which the slots are filled, nor on the pool it belongs to. Slots picked without a
+ * seed are held apart and filled from the unseeded generators, so unseeded values still vary from run to run.
+ *
+ * @author Stewart Bissett
+ */
+final class ValuePool<T> implements ValueFactory<T> {
+
+    private final ValueFactory<T> factory;
+    private final AtomicReferenceArray<T> seeded, unseeded;
+    private final long seed;
+
+    /**
+     * @param factory the factory to fill the pool from
+     * @param size the maximum number of distinct values in the pool
+     * @param seed the seed the slots picked with a seed are filled from. Pools of the same seed hold the same values
+     */
+    ValuePool(final ValueFactory<T> factory, final int size, final long seed) {
+        this.factory = factory;
+        this.seeded = new AtomicReferenceArray<>(size);
+        this.unseeded = new AtomicReferenceArray<>(size);
+        this.seed = seed;
+    }
+
+    @Override
+    public T createValue() {
+        boolean isSeeded = RandomSource.isSeeded();
+        AtomicReferenceArray<T> values = isSeeded ? this.seeded : this.unseeded;
+        int index = RandomSource.current().nextInt(values.length());
+        T value = values.get(index);
+        if (value == null) {
+            value = isSeeded ? RandomSource.withSeed(RandomSource.seedFor(this.seed, index), this.factory::createValue)
+                    : this.factory.createValue();
+            if (!values.compareAndSet(index, null, value)) {
+                value = values.get(index);
+            }
+        }
+        return value;
+    }
+}
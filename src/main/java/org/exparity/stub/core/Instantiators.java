@@ -0,0 +1,165 @@
+package org.exparity.stub.core;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Modifier;
+
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Static factory for the {@link ValueFactory} instances used to instantiate types by the
+ * {@link org.exparity.stub.bean.BeanBuilder}, {@link ValueFactories}, and {@link org.exparity.stub.stub.StubBuilder}.
+ * The instantiation strategy for each type is selected once and cached against the type so subsequent instances are
+ * created with a direct call.
+ *
+ * @author Stewart Bissett
+ */
+public abstract class Instantiators {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Instantiators.class);
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd(false);
+
+    private static final ClassValue<ValueFactory<?>> CONSTRUCTORS = new ClassValue<ValueFactory<?>>() {
+
+        @Override
+        protected ValueFactory<?> computeValue(final Class<?> type) {
+            return createConstructorFactory(type);
+        }
+    };
+
+    private static final ClassValue<ValueFactory<?>> ALLOCATORS = new ClassValue<ValueFactory<?>>() {
+
+        @Override
+        protected ValueFactory<?> computeValue(final Class<?> type) {
+            if (type.isInterface() || type.isArray() || type.isPrimitive()
+                    || Modifier.isAbstract(type.getModifiers())) {
+                return constructorOf(type);
+            }
+            // A default constructor which is not public, as on many types without setters, cannot be called so the
+            // type is instantiated without one as if it had no default constructor
+            try {
+                MethodHandles.publicLookup().findConstructor(type, methodType(void.class));
+                return constructorOf(type);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return instantiatorOf(type);
+            }
+        }
+    };
+
+    private static final ClassValue<ValueFactory<?>> INSTANTIATORS = new ClassValue<ValueFactory<?>>() {
+
+        @Override
+        protected ValueFactory<?> computeValue(final Class<?> type) {
+            ObjectInstantiator<?> instantiator = OBJENESIS.getInstantiatorOf(type);
+            return instantiator::newInstance;
+        }
+    };
+
+    /**
+     * Return a {@link ValueFactory} which creates a new instance of the type by invoking its default constructor. The
+     * factory throws a {@link NoDefaultConstructorException} if the type has no default constructor.
+     *
+     * @param type the type to instantiate
+     * @return a {@link ValueFactory} which creates a new instance of the type using its default constructor
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueFactory<T> constructorOf(final Class<T> type) {
+        return (ValueFactory<T>) CONSTRUCTORS.get(type);
+    }
+
+    /**
+     * Return a {@link ValueFactory} which creates a new instance of the type without invoking any of its constructors.
+     *
+     * @param type the type to instantiate
+     * @return a {@link ValueFactory} which creates a new instance of the type without invoking a constructor
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueFactory<T> instantiatorOf(final Class<T> type) {
+        return (ValueFactory<T>) INSTANTIATORS.get(type);
+    }
+
+    /**
+     * Return a {@link ValueFactory} which creates a new instance of the type by invoking its default constructor or, if
+     * it has no public default constructor, without invoking any of its constructors. The factory throws a
+     * {@link NoDefaultConstructorException} if the type is an interface or abstract.
+     *
+     * @param type the type to instantiate
+     * @return a {@link ValueFactory} which creates a new instance of the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueFactory<T> constructorOrInstantiatorOf(final Class<T> type) {
+        return (ValueFactory<T>) ALLOCATORS.get(type);
+    }
+
+    private static ValueFactory<?> createConstructorFactory(final Class<?> type) {
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return () -> {
+                throw new NoDefaultConstructorException(type);
+            };
+        }
+        MethodHandle constructor;
+        try {
+            type.getDeclaredConstructor();
+            constructor = MethodHandles.publicLookup().findConstructor(type, methodType(void.class));
+        } catch (NoSuchMethodException e) {
+            return () -> {
+                throw new NoDefaultConstructorException(type);
+            };
+        } catch (IllegalAccessException e) {
+            return () -> {
+                throw new ValueFactoryException("Failed to instantiate instance of '" + type.getCanonicalName() + "'",
+                        e);
+            };
+        }
+        if (isVisible(type)) {
+            try {
+                return createLambdaFactory(type, constructor);
+            } catch (Throwable e) {
+                LOG.debug("Fallback to MethodHandle constructor for [{}]. Error [{}]", type.getName(), e.getMessage());
+            }
+        }
+        return createMethodHandleFactory(type, constructor);
+    }
+
+    private static ValueFactory<?> createLambdaFactory(final Class<?> type, final MethodHandle constructor)
+            throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(),
+                "createValue",
+                methodType(ValueFactory.class),
+                methodType(Object.class),
+                constructor,
+                methodType(type));
+        return (ValueFactory<?>) site.getTarget().invoke();
+    }
+
+    private static ValueFactory<?> createMethodHandleFactory(final Class<?> type, final MethodHandle constructor) {
+        MethodHandle generic = constructor.asType(methodType(Object.class));
+        return () -> {
+            try {
+                return generic.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ValueFactoryException("Failed to instantiate instance of '" + type.getCanonicalName() + "'",
+                        e);
+            }
+        };
+    }
+
+    private static boolean isVisible(final Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, Instantiators.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
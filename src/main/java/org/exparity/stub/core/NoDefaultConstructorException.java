@@ -12,4 +12,8 @@ public class NoDefaultConstructorException extends RuntimeException {
     public NoDefaultConstructorException(final Class<?> type, final InstantiationException e) {
         super("Class '" + type.getName() + "' has no default constructor", e);
     }
+
+    public NoDefaultConstructorException(final Class<?> type) {
+        super("Class '" + type.getName() + "' has no default constructor");
+    }
 }
@@ -0,0 +1,443 @@
+package org.exparity.stub.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and timings for the objects and proxy classes created by the {@link org.exparity.stub.stub.StubBuilder},
+ * {@link org.exparity.stub.bean.BeanBuilder}, and {@link org.exparity.stub.random.RandomBuilder}. Metrics are disabled
+ * by default and, while disabled, recording is a single check of a flag. The time recorded for a type excludes the
+ * time spent creating the values nested within its objects, so the times recorded for all types add up to the time
+ * spent in the builders. For example
+ * </p>
+ *
+ * <pre>
+ * StubMetrics.enable();
+ * runTests();
+ * StubMetrics.Snapshot snapshot = StubMetrics.snapshot();
+ * System.out.println(snapshot.getObjectsCreated() + " objects in " + snapshot.getGenerationNanos() + "ns");
+ * </pre>
+ *
+ * The metrics can also be published as an MXBean named {@value #OBJECT_NAME} using {@link #registerMBean()}. The metrics
+ * hold no strong reference to the types they were recorded for so recording does not prevent a class being unloaded.
+ *
+ * @author Stewart Bissett
+ */
+public abstract class StubMetrics {
+
+    public static final String OBJECT_NAME = "org.exparity.stub:type=StubMetrics";
+
+    private static volatile boolean enabled;
+    private static volatile Registry registry = new Registry();
+    private static final ThreadLocal<long[]> ATTRIBUTED_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+    private static final LongAdder RETURN_VALUE_HITS = new LongAdder(), RETURN_VALUE_MISSES = new LongAdder();
+
+    /**
+     * Start recording metrics
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stop recording metrics. The metrics recorded so far are kept until {@link #reset()} is called
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discard all metrics recorded so far
+     */
+    public static void reset() {
+        registry = new Registry();
+        RETURN_VALUE_HITS.reset();
+        RETURN_VALUE_MISSES.reset();
+    }
+
+    /**
+     * Return an immutable copy of the metrics recorded so far
+     */
+    public static Snapshot snapshot() {
+        Map<Class<?>, TypeMetrics> types = new LinkedHashMap<>();
+        for (Iterator<TypeCounters> i = registry.counters.iterator(); i.hasNext();) {
+            TypeCounters counters = i.next();
+            Class<?> type = counters.type.get();
+            if (type == null) {
+                i.remove();
+            } else if (!counters.isEmpty()) {
+                types.put(type, counters.snapshot());
+            }
+        }
+        return new Snapshot(types, RETURN_VALUE_HITS.sum(), RETURN_VALUE_MISSES.sum());
+    }
+
+    /**
+     * Publish the metrics as an MXBean named {@value #OBJECT_NAME} on the platform MBean server. Registering more than
+     * once has no effect.
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMXBean(), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Remove the MXBean published by {@link #registerMBean()}
+     */
+    public static void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Return the start time to pass to the record methods, or zero if metrics are disabled. The start time is offset by
+     * the time already recorded on this thread so the record methods can exclude the time recorded in between.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() - ATTRIBUTED_NANOS.get()[0] : 0L;
+    }
+
+    /**
+     * Record an object of the given type was created. Called by the builders
+     *
+     * @param type the type of the object
+     * @param start the time returned by {@link #start()} before the object was created
+     */
+    public static void objectCreated(final Class<?> type, final long start) {
+        if (start != 0L) {
+            TypeCounters counters = registry.types.get(type);
+            counters.objects.increment();
+            counters.nanos.add(exclusiveNanosSince(start));
+        }
+    }
+
+    /**
+     * Record a proxy or materialised class was generated for the given type. Called by the stub proxy engines
+     *
+     * @param type the stubbed type
+     * @param start the time returned by {@link #start()} before the class was generated
+     */
+    public static void proxyClassGenerated(final Class<?> type, final long start) {
+        if (start != 0L) {
+            TypeCounters counters = registry.types.get(type);
+            counters.proxyClasses.increment();
+            counters.nanos.add(exclusiveNanosSince(start));
+        }
+    }
+
+    /**
+     * Record a call to a stubbed method. A hit is a call answered with the value created by an earlier call. Called by
+     * the stub proxies
+     *
+     * @param type the stubbed type
+     * @param hit true if the value had already been created
+     */
+    public static void returnValue(final Class<?> type, final boolean hit) {
+        if (enabled) {
+            TypeCounters counters = registry.types.get(type);
+            if (hit) {
+                counters.hits.increment();
+                RETURN_VALUE_HITS.increment();
+            } else {
+                counters.misses.increment();
+                RETURN_VALUE_MISSES.increment();
+            }
+        }
+    }
+
+    private static double hitRate(final long hits, final long misses) {
+        long calls = hits + misses;
+        return calls == 0 ? 0.0 : (double) hits / calls;
+    }
+
+    private static long exclusiveNanosSince(final long start) {
+        long[] attributed = ATTRIBUTED_NANOS.get();
+        long nanos = System.nanoTime() - attributed[0] - start;
+        attributed[0] += nanos;
+        return nanos;
+    }
+
+    /**
+     * The counters for each type, looked up through a {@link ClassValue} so the counters live and die with the type, and
+     * listed in a set which refers to each type weakly so they can be copied into a snapshot
+     */
+    private static class Registry {
+
+        private final Set<TypeCounters> counters = ConcurrentHashMap.newKeySet();
+        private final ClassValue<TypeCounters> types = new ClassValue<TypeCounters>() {
+
+            @Override
+            protected TypeCounters computeValue(final Class<?> type) {
+                TypeCounters created = new TypeCounters(type);
+                Registry.this.counters.add(created);
+                return created;
+            }
+        };
+    }
+
+    private static class TypeCounters {
+
+        private final WeakReference<Class<?>> type;
+        private final LongAdder objects = new LongAdder(), proxyClasses = new LongAdder(), nanos = new LongAdder();
+        private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+        private TypeCounters(final Class<?> type) {
+            this.type = new WeakReference<>(type);
+        }
+
+        /**
+         * Return true if nothing was recorded, as for counters computed by a thread which lost the race to install them
+         */
+        private boolean isEmpty() {
+            return this.objects.sum() == 0 && this.proxyClasses.sum() == 0 && this.hits.sum() == 0
+                    && this.misses.sum() == 0;
+        }
+
+        private TypeMetrics snapshot() {
+            return new TypeMetrics(this.objects.sum(),
+                    this.proxyClasses.sum(),
+                    this.nanos.sum(),
+                    this.hits.sum(),
+                    this.misses.sum());
+        }
+    }
+
+    /**
+     * The metrics recorded for a single type
+     */
+    public static final class TypeMetrics {
+
+        private final long objectsCreated, proxyClassesGenerated, generationNanos, returnValueHits, returnValueMisses;
+
+        private TypeMetrics(final long objectsCreated,
+                final long proxyClassesGenerated,
+                final long generationNanos,
+                final long returnValueHits,
+                final long returnValueMisses) {
+            this.objectsCreated = objectsCreated;
+            this.proxyClassesGenerated = proxyClassesGenerated;
+            this.generationNanos = generationNanos;
+            this.returnValueHits = returnValueHits;
+            this.returnValueMisses = returnValueMisses;
+        }
+
+        /**
+         * Return the number of objects of the type created
+         */
+        public long getObjectsCreated() {
+            return this.objectsCreated;
+        }
+
+        /**
+         * Return the number of proxy or materialised classes generated for the type
+         */
+        public long getProxyClassesGenerated() {
+            return this.proxyClassesGenerated;
+        }
+
+        /**
+         * Return the nanoseconds spent creating objects of the type, excluding the values created with them, and
+         * generating classes for the type
+         */
+        public long getGenerationNanos() {
+            return this.generationNanos;
+        }
+
+        /**
+         * Return the number of calls to the stubbed methods of the type answered with a value created by an earlier call
+         */
+        public long getReturnValueHits() {
+            return this.returnValueHits;
+        }
+
+        /**
+         * Return the number of calls to the stubbed methods of the type which created the value they returned
+         */
+        public long getReturnValueMisses() {
+            return this.returnValueMisses;
+        }
+
+        /**
+         * Return the proportion of calls to the stubbed methods of the type answered with a value created by an earlier
+         * call
+         */
+        public double getReturnValueHitRate() {
+            return hitRate(this.returnValueHits, this.returnValueMisses);
+        }
+
+        @Override
+        public String toString() {
+            return "TypeMetrics [objectsCreated=" + this.objectsCreated + ", proxyClassesGenerated="
+                    + this.proxyClassesGenerated + ", generationNanos=" + this.generationNanos + ", returnValueHits="
+                    + this.returnValueHits + ", returnValueMisses=" + this.returnValueMisses + "]";
+        }
+    }
+
+    /**
+     * An immutable copy of the metrics recorded up to the time it was taken
+     */
+    public static final class Snapshot {
+
+        private final Map<Class<?>, TypeMetrics> types;
+        private final long returnValueHits, returnValueMisses;
+
+        private Snapshot(final Map<Class<?>, TypeMetrics> types,
+                final long returnValueHits,
+                final long returnValueMisses) {
+            this.types = Collections.unmodifiableMap(types);
+            this.returnValueHits = returnValueHits;
+            this.returnValueMisses = returnValueMisses;
+        }
+
+        /**
+         * Return the metrics for each type for which metrics were recorded
+         */
+        public Map<Class<?>, TypeMetrics> getTypes() {
+            return this.types;
+        }
+
+        /**
+         * Return the metrics for the given type. All counts are zero if nothing was recorded for the type
+         */
+        public TypeMetrics getType(final Class<?> type) {
+            TypeMetrics metrics = this.types.get(type);
+            return metrics != null ? metrics : new TypeMetrics(0, 0, 0, 0, 0);
+        }
+
+        public long getObjectsCreated() {
+            return this.types.values().stream().mapToLong(TypeMetrics::getObjectsCreated).sum();
+        }
+
+        public long getProxyClassesGenerated() {
+            return this.types.values().stream().mapToLong(TypeMetrics::getProxyClassesGenerated).sum();
+        }
+
+        public long getGenerationNanos() {
+            return this.types.values().stream().mapToLong(TypeMetrics::getGenerationNanos).sum();
+        }
+
+        public long getReturnValueHits() {
+            return this.returnValueHits;
+        }
+
+        public long getReturnValueMisses() {
+            return this.returnValueMisses;
+        }
+
+        /**
+         * Return the proportion of calls to stubbed methods answered with a value created by an earlier call
+         */
+        public double getReturnValueHitRate() {
+            return hitRate(this.returnValueHits, this.returnValueMisses);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot [objectsCreated=" + getObjectsCreated() + ", proxyClassesGenerated="
+                    + getProxyClassesGenerated() + ", generationNanos=" + getGenerationNanos() + ", returnValueHits="
+                    + this.returnValueHits + ", returnValueMisses=" + this.returnValueMisses + "]";
+        }
+    }
+
+    private static class MetricsMXBean implements StubMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return StubMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(final boolean enabled) {
+            if (enabled) {
+                StubMetrics.enable();
+            } else {
+                StubMetrics.disable();
+            }
+        }
+
+        @Override
+        public void reset() {
+            StubMetrics.reset();
+        }
+
+        @Override
+        public long getObjectsCreated() {
+            return snapshot().getObjectsCreated();
+        }
+
+        @Override
+        public long getProxyClassesGenerated() {
+            return snapshot().getProxyClassesGenerated();
+        }
+
+        @Override
+        public long getGenerationNanos() {
+            return snapshot().getGenerationNanos();
+        }
+
+        @Override
+        public double getReturnValueHitRate() {
+            return snapshot().getReturnValueHitRate();
+        }
+
+        @Override
+        public Map<String, Long> getObjectsCreatedByType() {
+            Map<String, Long> objects = new LinkedHashMap<>();
+            for (Entry<Class<?>, TypeMetrics> type : snapshot().getTypes().entrySet()) {
+                objects.put(type.getKey().getName(), type.getValue().getObjectsCreated());
+            }
+            return objects;
+        }
+
+        @Override
+        public Map<String, Long> getGenerationNanosByType() {
+            Map<String, Long> nanos = new LinkedHashMap<>();
+            for (Entry<Class<?>, TypeMetrics> type : snapshot().getTypes().entrySet()) {
+                nanos.put(type.getKey().getName(), type.getValue().getGenerationNanos());
+            }
+            return nanos;
+        }
+
+        @Override
+        public Map<String, Double> getReturnValueHitRateByType() {
+            Map<String, Double> rates = new LinkedHashMap<>();
+            for (Entry<Class<?>, TypeMetrics> type : snapshot().getTypes().entrySet()) {
+                TypeMetrics metrics = type.getValue();
+                if (metrics.getReturnValueHits() + metrics.getReturnValueMisses() > 0) {
+                    rates.put(type.getKey().getName(), metrics.getReturnValueHitRate());
+                }
+            }
+            return rates;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.exparity.stub.core;
+
+import java.util.Map;
+
+/**
+ * Management interface for the {@link StubMetrics}, published using {@link StubMetrics#registerMBean()}
+ *
+ * @author Stewart Bissett
+ */
+public interface StubMetricsMXBean {
+
+    public boolean isEnabled();
+
+    public void setEnabled(final boolean enabled);
+
+    public void reset();
+
+    public long getObjectsCreated();
+
+    public long getProxyClassesGenerated();
+
+    public long getGenerationNanos();
+
+    public double getReturnValueHitRate();
+
+    public Map<String, Long> getObjectsCreatedByType();
+
+    public Map<String, Long> getGenerationNanosByType();
+
+    public Map<String, Double> getReturnValueHitRateByType();
+}
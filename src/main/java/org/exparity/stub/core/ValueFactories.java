@@ -1,8 +1,6 @@
 
 package org.exparity.stub.core;
 
-import static org.apache.commons.lang.math.RandomUtils.nextInt;
-
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -18,6 +16,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.exparity.stub.random.RandomBuilder;
+import org.exparity.stub.random.RandomSource;
 
 
 /**
@@ -199,7 +198,7 @@ public abstract class ValueFactories {
 			if (enumerationValues.length == 0) {
 				throw new ValueFactoryException("Enumeration " + enumType.getName() + "has no values");
 			} else {
-				return enumerationValues[nextInt(enumerationValues.length)];
+				return enumerationValues[RandomSource.current().nextInt(enumerationValues.length)];
 			}
 		};
 	}
@@ -213,15 +212,15 @@ public abstract class ValueFactories {
 	@SuppressWarnings("unchecked")
 	public static <A> ValueFactory<A[]> aRandomArrayOf(final ValueFactory<A> typeFactory, final int size) {
 		return () -> {
-		    A instance = typeFactory.createValue();
-		    Object array = Array.newInstance(instance.getClass(), size);
-		    if ( size > 0 ) {
-                Array.set(array, 0, instance);
-    			for (int i = 1; i < size; ++i) {
-    				Array.set(array, i, typeFactory.createValue());
-    			}
-		    }
-			return (A[]) array;
+			A instance = typeFactory.createValue();
+			A[] array = (A[]) Array.newInstance(instance.getClass(), size);
+			if (size > 0) {
+				array[0] = instance;
+				for (int i = 1; i < size; ++i) {
+					array[i] = typeFactory.createValue();
+				}
+			}
+			return array;
 		};
 	}
 
@@ -231,17 +230,7 @@ public abstract class ValueFactories {
 	 * @return an {@link ArrayFactory} which returns a new unpopulated instance of the given type.
 	 */
 	public static <T> ValueFactory<T> anEmptyInstanceOf(final Class<T> type) {
-		return () -> {
-			try {
-				return type.newInstance();
-			} catch (InstantiationException e) {
-			    throw new NoDefaultConstructorException(type, e);
-			} catch (Exception e) {
-				throw new ValueFactoryException(
-						"Failed to instantiate instance of '" + type.getCanonicalName() + "'",
-							e);
-			}
-		};
+		return Instantiators.constructorOf(type);
 	}
 
 	/**
@@ -260,7 +249,7 @@ public abstract class ValueFactories {
 	 * @return an {@link ValueFactory} which returns a random instance of the given type by using one of the supplied {@link ValueFactory} instances.
 	 */
 	public static <T> ValueFactory<T> oneOf(final Collection<ValueFactory<T>> factories) {
-		return () -> new ArrayList<>(factories).get(nextInt(factories.size())).createValue();
+		return () -> new ArrayList<>(factories).get(RandomSource.current().nextInt(factories.size())).createValue();
 	}
 
 	/**
@@ -269,7 +258,7 @@ public abstract class ValueFactories {
 	 * @return an {@link ValueFactory} which returns a random instance of the given type by using one of the supplied {@link ValueFactory} instances.
 	 */
 	public static <T> ValueFactory<T> oneOf(final List<ValueFactory<T>> factories) {
-		return () -> factories.get(nextInt(factories.size())).createValue();
+		return () -> factories.get(RandomSource.current().nextInt(factories.size())).createValue();
 	}
 
 	/**
@@ -279,6 +268,6 @@ public abstract class ValueFactories {
 	 */
 	@SuppressWarnings("unchecked")
 	public static <T> ValueFactory<T> oneOf(final T... instances) {
-		return () -> instances[nextInt(instances.length)];
+		return () -> instances[RandomSource.current().nextInt(instances.length)];
 	}
 }
@@ -0,0 +1,128 @@
+package org.exparity.stub.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the {@link ValueFactory} registered to create values of a requested type. Used by the
+ * {@link org.exparity.stub.bean.BeanBuilder}, {@link org.exparity.stub.stub.StubBuilder}, and
+ * {@link org.exparity.stub.random.RandomBuilder} to select the factory for types configured with
+ * <code>with(Class, ValueFactory)</code> or <code>factory(Class, ValueFactory)</code>.
+ * <p/>
+ * A factory registered for a type is used for any requested type the registered type can be assigned to. Where more
+ * than one registration applies the most specific wins:
+ * <ol>
+ * <li>a factory registered for exactly the requested type</li>
+ * <li>otherwise the factory registered for the type nearest the requested type in the type hierarchy</li>
+ * <li>otherwise, where registered types are equally near, the factory registered last</li>
+ * </ol>
+ * For example, if factories are registered for <code>Shape</code> and <code>Square</code> then <code>Shape</code>
+ * properties use the <code>Shape</code> factory and <code>Square</code> properties use the <code>Square</code> factory.
+ * <p/>
+ * The factory selected for each requested type is cached until another factory is registered.
+ *
+ * @author Stewart Bissett
+ */
+public class ValueFactoryResolver {
+
+    private final Map<Class<?>, ValueFactory<?>> factories = new LinkedHashMap<>();
+    private final ConcurrentMap<Class<?>, Optional<ValueFactory<?>>> resolved = new ConcurrentHashMap<>();
+
+    public ValueFactoryResolver() {}
+
+    private ValueFactoryResolver(final ValueFactoryResolver other) {
+        this.factories.putAll(other.factories);
+    }
+
+    /**
+     * Register the factory to use for values of the given type and its super types. Any factory previously registered
+     * for the type is replaced.
+     *
+     * @param type the type the factory creates
+     * @param factory the factory to create values of the type
+     */
+    public <T> void register(final Class<T> type, final ValueFactory<T> factory) {
+        this.factories.remove(type);
+        this.factories.put(type, factory);
+        this.resolved.clear();
+    }
+
+    /**
+     * Return the factory which should create values of the requested type, or an empty optional if no registered
+     * factory applies.
+     *
+     * @param type the requested type
+     * @return the most specific factory registered for the type
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> Optional<ValueFactory<T>> resolve(final Class<T> type) {
+        if (this.factories.isEmpty()) {
+            return Optional.empty();
+        }
+        return (Optional) this.resolved.computeIfAbsent(type, this::findMostSpecific);
+    }
+
+    /**
+     * Return true if no factories have been registered
+     */
+    public boolean isEmpty() {
+        return this.factories.isEmpty();
+    }
+
+    /**
+     * Return a copy of this resolver which is unaffected by factories registered with this resolver afterwards
+     */
+    public ValueFactoryResolver copy() {
+        return new ValueFactoryResolver(this);
+    }
+
+    private Optional<ValueFactory<?>> findMostSpecific(final Class<?> type) {
+        ValueFactory<?> selected = null;
+        int selectedDistance = Integer.MAX_VALUE;
+        for (Entry<Class<?>, ValueFactory<?>> registered : this.factories.entrySet()) {
+            if (type.isAssignableFrom(registered.getKey())) {
+                int distance = distanceBetween(registered.getKey(), type);
+                if (distance <= selectedDistance) {
+                    selected = registered.getValue();
+                    selectedDistance = distance;
+                }
+            }
+        }
+        return Optional.ofNullable(selected);
+    }
+
+    /**
+     * Return the number of steps through superclasses and interfaces from the subtype to the supertype
+     */
+    private static int distanceBetween(final Class<?> subtype, final Class<?> supertype) {
+        Deque<Class<?>> level = new ArrayDeque<>();
+        Set<Class<?>> visited = new HashSet<>();
+        level.add(subtype);
+        for (int distance = 0; !level.isEmpty(); ++distance) {
+            Deque<Class<?>> next = new ArrayDeque<>();
+            for (Class<?> candidate : level) {
+                if (candidate == supertype) {
+                    return distance;
+                } else if (visited.add(candidate)) {
+                    if (candidate.getSuperclass() != null) {
+                        next.add(candidate.getSuperclass());
+                    }
+                    for (Class<?> iface : candidate.getInterfaces()) {
+                        next.add(iface);
+                    }
+                }
+            }
+            level = next;
+        }
+        // Assignable but not reached through the hierarchy, e.g. an interface requested as Object
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -0,0 +1,315 @@
+package org.exparity.stub.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import org.exparity.stub.stub.GenerateStub;
+
+/**
+ * Annotation processor which generates a stub class at compile time for each type annotated with {@link GenerateStub}
+ * and for each type listed in the <code>exparity.stub.types</code> option. The processor is not registered as a service
+ * so it only runs when named explicitly. For example
+ * </p>
+ *
+ * <pre>
+ * javac -processor org.exparity.stub.processor.StubProcessor -Aexparity.stub.types=com.example.Person ...
+ * </pre>
+ *
+ * The generated class is named after the binary name of the stubbed type with the {@link GenerateStub#SUFFIX} suffix
+ * and is placed in the same package so the {@link org.exparity.stub.stub.StubBuilder} can find it at runtime.
+ *
+ * @author Stewart Bissett
+ */
+public class StubProcessor extends AbstractProcessor {
+
+    public static final String TYPES_OPTION = "exparity.stub.types";
+
+    private static final String STUB_VALUES = "org.exparity.stub.stub.StubValues";
+    private static final String METHOD_VALUE_FACTORY = "org.exparity.stub.stub.StubProxyEngine.MethodValueFactory";
+
+    private final Set<String> generated = new LinkedHashSet<>();
+    private boolean typesProcessed;
+
+    /**
+     * The processor must be called in every round to generate the types listed in the option, which javac only does
+     * for a processor supporting "*". It never claims the annotations it is given.
+     */
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return getTypesOption().isEmpty() ? Collections.singleton(GenerateStub.class.getName())
+                : Collections.singleton("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(TYPES_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateStub.class)) {
+            if (element instanceof TypeElement) {
+                generateStub((TypeElement) element);
+            }
+        }
+        if (this.typesProcessed) {
+            return false;
+        }
+        this.typesProcessed = true;
+        for (String typeName : getTypesOption()) {
+            TypeElement type = this.processingEnv.getElementUtils().getTypeElement(typeName);
+            if (type == null) {
+                this.processingEnv.getMessager()
+                        .printMessage(Kind.ERROR, "Unable to find type '" + typeName + "' listed in " + TYPES_OPTION);
+            } else {
+                generateStub(type);
+            }
+        }
+        return false;
+    }
+
+    private List<String> getTypesOption() {
+        List<String> types = new ArrayList<>();
+        String option = this.processingEnv.getOptions().get(TYPES_OPTION);
+        if (option != null) {
+            for (String type : option.split(",")) {
+                if (!type.trim().isEmpty()) {
+                    types.add(type.trim());
+                }
+            }
+        }
+        return types;
+    }
+
+    private void generateStub(final TypeElement type) {
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (!this.generated.add(binaryName)) {
+            return;
+        } else if (!isStubbable(type)) {
+            return;
+        }
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String stubName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + GenerateStub.SUFFIX;
+        try {
+            JavaFileObject file = this.processingEnv.getFiler()
+                    .createSourceFile(binaryName + GenerateStub.SUFFIX, type);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                writeStub(out, type, packageName, stubName);
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager()
+                    .printMessage(Kind.ERROR, "Failed to generate stub for '" + binaryName + "'. " + e, type);
+        }
+    }
+
+    private boolean isStubbable(final TypeElement type) {
+        Set<Modifier> modifiers = type.getModifiers();
+        if (type.getKind() != ElementKind.INTERFACE && type.getKind() != ElementKind.CLASS) {
+            return error(type, "Only interfaces and classes can be stubbed");
+        } else if (modifiers.contains(Modifier.FINAL)) {
+            return error(type, "Final classes cannot be stubbed");
+        } else if (modifiers.contains(Modifier.PRIVATE)) {
+            return error(type, "Private types cannot be stubbed");
+        } else if (type.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC)
+                && type.getKind() == ElementKind.CLASS) {
+            return error(type, "Inner classes cannot be stubbed");
+        } else if (type.getQualifiedName().toString().startsWith("java.")) {
+            return error(type, "Types in java packages cannot be stubbed at compile time");
+        } else if (type.getKind() == ElementKind.CLASS && !hasDefaultConstructor(type)) {
+            return error(type, "Classes must have a non-private default constructor to be stubbed");
+        }
+        return true;
+    }
+
+    private boolean hasDefaultConstructor(final TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean error(final TypeElement type, final String message) {
+        this.processingEnv.getMessager().printMessage(Kind.ERROR, message, type);
+        return false;
+    }
+
+    private void writeStub(final PrintWriter out,
+            final TypeElement type,
+            final String packageName,
+            final String stubName) {
+        String typeName = type.getQualifiedName().toString();
+        Map<String, ExecutableElement> methods = getOverridableMethods(type);
+        DeclaredType declaredType = this.processingEnv.getTypeUtils().getDeclaredType(type);
+        List<ExecutableElement> valueMethods = new ArrayList<>();
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * Stub of {@link " + typeName + "} generated by " + getClass().getName());
+        out.println(" */");
+        out.println("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })");
+        out.println("final class " + stubName
+                + (type.getKind() == ElementKind.INTERFACE ? " implements " : " extends ")
+                + typeName
+                + " {");
+        out.println();
+        out.println("    private final " + STUB_VALUES + " values;");
+        out.println();
+        out.println("    " + stubName + "(final " + METHOD_VALUE_FACTORY + " values) {");
+        out.println("        this.values = new " + STUB_VALUES + "(" + typeName + ".class, METHODS, values);");
+        out.println("    }");
+        for (ExecutableElement method : methods.values()) {
+            String name = method.getSimpleName().toString();
+            ExecutableType signature = (ExecutableType) this.processingEnv.getTypeUtils()
+                    .asMemberOf(declaredType, method);
+            out.println();
+            out.println("    @Override");
+            out.print("    " + getAccess(method) + erasure(signature.getReturnType()) + " " + name + "(");
+            for (int i = 0; i < signature.getParameterTypes().size(); ++i) {
+                out.print((i > 0 ? ", " : "") + "final " + erasure(signature.getParameterTypes().get(i)) + " arg" + i);
+            }
+            out.println(") {");
+            if (name.equals("equals") && method.getParameters().size() == 1) {
+                out.println("        return this == arg0;");
+            } else if (name.equals("hashCode") && method.getParameters().isEmpty()) {
+                out.println("        return System.identityHashCode(this);");
+            } else if (name.equals("iterator") || name.equals("finalize")) {
+                out.println("        throw new AbstractMethodError(\"" + name + "\");");
+            } else if (signature.getReturnType().getKind() != TypeKind.VOID) {
+                out.println("        return (" + boxed(signature.getReturnType()) + ") this.values.get("
+                        + valueMethods.size()
+                        + ");");
+                valueMethods.add(method);
+            }
+            out.println("    }");
+        }
+        out.println();
+        out.println("    private static final java.lang.reflect.Method[] METHODS = {");
+        for (ExecutableElement method : valueMethods) {
+            out.print("            " + STUB_VALUES + ".methodOf(" + typeName + ".class, \"" + method.getSimpleName()
+                    + "\"");
+            for (TypeMirror parameter : ((ExecutableType) method.asType()).getParameterTypes()) {
+                out.print(", " + erasure(parameter) + ".class");
+            }
+            out.println("),");
+        }
+        out.println("    };");
+        out.println("}");
+    }
+
+    /**
+     * Return the methods a stub of the type overrides, keyed by their erased signature. This mirrors the methods
+     * overridden by the runtime stubs; pass-through methods such as finalize are only overridden when abstract.
+     */
+    private Map<String, ExecutableElement> getOverridableMethods(final TypeElement type) {
+        Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+        List<ExecutableElement> candidates = new ArrayList<>(
+                ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type)));
+        if (type.getKind() == ElementKind.INTERFACE) {
+            TypeElement object = this.processingEnv.getElementUtils().getTypeElement(Object.class.getName());
+            candidates.addAll(ElementFilter.methodsIn(object.getEnclosedElements()));
+        }
+        DeclaredType declaredType = this.processingEnv.getTypeUtils().getDeclaredType(type);
+        Set<String> finalMethods = new LinkedHashSet<>();
+        for (ExecutableElement method : candidates) {
+            if (method.getModifiers().contains(Modifier.FINAL)) {
+                finalMethods.add(signatureOf(declaredType, method));
+            }
+        }
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        for (ExecutableElement method : candidates) {
+            Set<Modifier> modifiers = method.getModifiers();
+            String name = method.getSimpleName().toString();
+            TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+            String declaringPackage = this.processingEnv.getElementUtils()
+                    .getPackageOf(declaringType)
+                    .getQualifiedName()
+                    .toString();
+            boolean isObjectMethod = declaringType.getQualifiedName().contentEquals(Object.class.getName());
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)
+                    || modifiers.contains(Modifier.PRIVATE)) {
+                continue;
+            } else if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)
+                    && !declaringPackage.equals(packageName)) {
+                continue;
+            } else if (isObjectMethod && !name.equals("toString")) {
+                continue;
+            } else if ((name.equals("iterator") || name.equals("finalize"))
+                    && !modifiers.contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            String signature = signatureOf(declaredType, method);
+            if (!finalMethods.contains(signature)) {
+                methods.putIfAbsent(signature, method);
+            }
+        }
+        return methods;
+    }
+
+    private String signatureOf(final DeclaredType declaredType, final ExecutableElement method) {
+        ExecutableType memberType = (ExecutableType) this.processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+        StringBuilder signature = new StringBuilder(method.getSimpleName()).append("(");
+        for (TypeMirror parameter : memberType.getParameterTypes()) {
+            signature.append(erasure(parameter)).append(";");
+        }
+        return signature.append(")").toString();
+    }
+
+    private String getAccess(final ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PUBLIC)
+                || method.getEnclosingElement().getKind() == ElementKind.INTERFACE) {
+            return "public ";
+        } else if (method.getModifiers().contains(Modifier.PROTECTED)) {
+            return "protected ";
+        } else {
+            return "";
+        }
+    }
+
+    private String erasure(final TypeMirror type) {
+        return this.processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String boxed(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return this.processingEnv.getTypeUtils()
+                    .boxedClass(this.processingEnv.getTypeUtils().getPrimitiveType(type.getKind()))
+                    .getQualifiedName()
+                    .toString();
+        }
+        return erasure(type);
+    }
+}
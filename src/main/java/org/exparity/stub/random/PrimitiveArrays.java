@@ -0,0 +1,127 @@
+package org.exparity.stub.random;
+
+import java.util.Random;
+
+/**
+ * Builds arrays of random primitive values. Each array is filled directly from the {@link RandomSource} of the current
+ * thread without boxing the values or setting them through reflection. The values follow the same ranges as the single
+ * values created by the {@link RandomBuilder}. For example
+ * </p>
+ *
+ * <pre>
+ * int[] numbers = PrimitiveArrays.aRandomIntArray(1000);
+ * long[] ids = (long[]) PrimitiveArrays.aRandomArrayOf(long.class, 1000);
+ * </pre>
+ *
+ * @author Stewart Bissett
+ */
+public abstract class PrimitiveArrays {
+
+    private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    /**
+     * Build an array of random values of the given primitive type
+     *
+     * @param componentType the primitive type of the array, for example <code>int.class</code>
+     * @param length the length of the array
+     * @return an array of the primitive type, for example an <code>int[]</code>
+     */
+    public static Object aRandomArrayOf(final Class<?> componentType, final int length) {
+        if (componentType == int.class) {
+            return aRandomIntArray(length);
+        } else if (componentType == long.class) {
+            return aRandomLongArray(length);
+        } else if (componentType == double.class) {
+            return aRandomDoubleArray(length);
+        } else if (componentType == float.class) {
+            return aRandomFloatArray(length);
+        } else if (componentType == short.class) {
+            return aRandomShortArray(length);
+        } else if (componentType == byte.class) {
+            return aRandomByteArray(length);
+        } else if (componentType == char.class) {
+            return aRandomCharArray(length);
+        } else if (componentType == boolean.class) {
+            return aRandomBooleanArray(length);
+        }
+        throw new IllegalArgumentException("Type '" + componentType + "' is not a primitive type");
+    }
+
+    public static int[] aRandomIntArray(final int length) {
+        Random random = RandomSource.current();
+        int[] array = new int[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = random.nextInt();
+        }
+        return array;
+    }
+
+    public static long[] aRandomLongArray(final int length) {
+        Random random = RandomSource.current();
+        long[] array = new long[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = random.nextLong();
+        }
+        return array;
+    }
+
+    public static double[] aRandomDoubleArray(final int length) {
+        Random random = RandomSource.current();
+        double[] array = new double[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = random.nextDouble();
+        }
+        return array;
+    }
+
+    public static float[] aRandomFloatArray(final int length) {
+        Random random = RandomSource.current();
+        float[] array = new float[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = random.nextFloat();
+        }
+        return array;
+    }
+
+    public static short[] aRandomShortArray(final int length) {
+        Random random = RandomSource.current();
+        short[] array = new short[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = (short) random.nextInt(Short.MAX_VALUE);
+        }
+        return array;
+    }
+
+    /**
+     * Build an array of random bytes in the range of {@link RandomBuilder#aRandomByte()}
+     */
+    public static byte[] aRandomByteArray(final int length) {
+        Random random = RandomSource.current();
+        byte[] array = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = (byte) random.nextInt(Byte.MAX_VALUE);
+        }
+        return array;
+    }
+
+    /**
+     * Build an array of random letters
+     */
+    public static char[] aRandomCharArray(final int length) {
+        Random random = RandomSource.current();
+        char[] array = new char[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = LETTERS[random.nextInt(LETTERS.length)];
+        }
+        return array;
+    }
+
+    public static boolean[] aRandomBooleanArray(final int length) {
+        Random random = RandomSource.current();
+        boolean[] array = new boolean[length];
+        for (int i = 0; i < length; ++i) {
+            array[i] = random.nextBoolean();
+        }
+        return array;
+    }
+}
@@ -4,13 +4,10 @@ import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static java.util.Comparator.comparing;
-import static org.apache.commons.lang.RandomStringUtils.randomAlphabetic;
-import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
-import static org.apache.commons.lang.RandomStringUtils.randomNumeric;
-import static org.apache.commons.lang.math.RandomUtils.*;
 import static org.apache.commons.lang.time.DateUtils.addSeconds;
 import static org.exparity.stub.core.ValueFactories.anEmptyInstanceOf;
 import static org.exparity.stub.core.ValueFactories.theValue;
+import static org.exparity.stub.random.RandomSource.*;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
@@ -37,7 +34,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang.RandomStringUtils;
 import org.exparity.beans.Type;
 import org.exparity.stub.bean.BeanBuilder;
 import org.exparity.stub.bean.BeanBuilderException;
@@ -160,7 +156,7 @@ public abstract class RandomBuilder {
      * @return a random {@link String}.
      */
     public static String aRandomAscii(final int length) {
-        return RandomStringUtils.randomAscii(length);
+        return randomAscii(length);
     }
 
     /**
@@ -493,11 +489,7 @@ public abstract class RandomBuilder {
      * @return a random array of bytes
      */
     public static byte[] aRandomByteArray() {
-        byte[] array = new byte[aRandomInteger(2, 1000)];
-        for (int i = 0; i < array.length; ++i) {
-            array[i] = aRandomByte();
-        }
-        return array;
+        return PrimitiveArrays.aRandomByteArray(aRandomInteger(2, 1000));
     }
 
     /**
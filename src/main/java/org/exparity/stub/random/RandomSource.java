@@ -0,0 +1,166 @@
+package org.exparity.stub.random;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang.math.RandomUtils;
+
+/**
+ * The source of the random values used by the {@link RandomBuilder} and the builders which use it. Values are drawn
+ * from the generators used by commons-lang's {@link RandomUtils} and {@link RandomStringUtils} unless the current
+ * thread is generating values with a seed. For example
+ * </p>
+ *
+ * <pre>
+ * Person first = RandomSource.withSeed(42L, () -&gt; aRandomInstanceOf(Person.class));
+ * Person second = RandomSource.withSeed(42L, () -&gt; aRandomInstanceOf(Person.class));
+ * </pre>
+ *
+ * will populate first and second with the same values. Dates and times remain relative to the current time. A seeded
+ * generator keeps the contract of commons-lang's {@link org.apache.commons.lang.math.JVMRandom}, so
+ * {@link Random#nextInt()} and {@link Random#nextLong()} never return a negative value and seeded values fall in the
+ * same ranges as unseeded ones.
+ *
+ * @author Stewart Bissett
+ */
+public abstract class RandomSource {
+
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    private static final ThreadLocal<Random> SEEDED = new ThreadLocal<>();
+
+    /**
+     * Create a value on the current thread with every random value drawn from a sequence started from the given seed.
+     *
+     * @param seed the seed to start the sequence from
+     * @param supplier the supplier of the value
+     * @return the value created by the supplier
+     */
+    public static <T> T withSeed(final long seed, final Supplier<T> supplier) {
+        Random previous = SEEDED.get();
+        SEEDED.set(new SeededRandom(mix(seed)));
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                SEEDED.set(previous);
+            } else {
+                SEEDED.remove();
+            }
+        }
+    }
+
+    /**
+     * Return the seed of one of a family of independent sequences derived from a single seed. Work split across threads
+     * can seed each item from its index so the values created do not depend on how the work was split. For example
+     * </p>
+     *
+     * <pre>
+     * Person tenth = RandomSource.withSeed(RandomSource.seedFor(42L, 10), () -&gt; aRandomInstanceOf(Person.class));
+     * </pre>
+     *
+     * @param seed the seed the family of sequences is derived from
+     * @param index the index of the sequence in the family
+     * @return the seed of the sequence at the index
+     */
+    public static long seedFor(final long seed, final long index) {
+        return seed + index * SEED_INCREMENT;
+    }
+
+    /**
+     * Return true if the current thread is generating values with a seed
+     */
+    public static boolean isSeeded() {
+        return SEEDED.get() != null;
+    }
+
+    /**
+     * Return the {@link Random} to draw values from on the current thread
+     */
+    public static Random current() {
+        Random seeded = SEEDED.get();
+        return seeded != null ? seeded : RandomUtils.JVM_RANDOM;
+    }
+
+    static int nextInt() {
+        return current().nextInt();
+    }
+
+    static int nextInt(final int bound) {
+        return current().nextInt(bound);
+    }
+
+    static long nextLong() {
+        return current().nextLong();
+    }
+
+    static double nextDouble() {
+        return current().nextDouble();
+    }
+
+    static float nextFloat() {
+        return current().nextFloat();
+    }
+
+    static boolean nextBoolean() {
+        return current().nextBoolean();
+    }
+
+    static String randomAlphanumeric(final int length) {
+        Random seeded = SEEDED.get();
+        return seeded != null ? RandomStringUtils.random(length, 0, 0, true, true, null, seeded)
+                : RandomStringUtils.randomAlphanumeric(length);
+    }
+
+    static String randomAlphabetic(final int length) {
+        Random seeded = SEEDED.get();
+        return seeded != null ? RandomStringUtils.random(length, 0, 0, true, false, null, seeded)
+                : RandomStringUtils.randomAlphabetic(length);
+    }
+
+    static String randomNumeric(final int length) {
+        Random seeded = SEEDED.get();
+        return seeded != null ? RandomStringUtils.random(length, 0, 0, false, true, null, seeded)
+                : RandomStringUtils.randomNumeric(length);
+    }
+
+    /**
+     * Scramble a seed with the finalising step of SplitMix64. The first values drawn from {@link Random} are strongly
+     * correlated for nearby seeds, such as those returned by {@link #seedFor(long, long)}, so each seed is scrambled
+     * before it is used
+     */
+    private static long mix(final long seed) {
+        long z = seed + SEED_INCREMENT;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static String randomAscii(final int length) {
+        Random seeded = SEEDED.get();
+        return seeded != null ? RandomStringUtils.random(length, 32, 127, false, false, null, seeded)
+                : RandomStringUtils.randomAscii(length);
+    }
+
+    /**
+     * A {@link Random} which, as commons-lang's {@link org.apache.commons.lang.math.JVMRandom} does, draws only
+     * non-negative values from {@link #nextInt()} and {@link #nextLong()}
+     */
+    @SuppressWarnings("serial")
+    private static class SeededRandom extends Random {
+
+        private SeededRandom(final long seed) {
+            super(seed);
+        }
+
+        @Override
+        public int nextInt() {
+            return nextInt(Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long nextLong() {
+            return super.nextLong() >>> 1;
+        }
+    }
+}
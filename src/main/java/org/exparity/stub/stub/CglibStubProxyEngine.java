@@ -0,0 +1,128 @@
+package org.exparity.stub.stub;
+
+import static java.lang.System.identityHashCode;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.exparity.stub.core.Instantiators;
+import org.exparity.stub.core.StubMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.FixedValue;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.NoOp;
+
+/**
+ * A {@link StubProxyEngine} which generates a cglib subclass of the stubbed type
+ *
+ * @author Stewart Bissett
+ */
+class CglibStubProxyEngine implements StubProxyEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CglibStubProxyEngine.class);
+
+    // equals cannot reliably be ignored or proxied. If ignored then an implementation
+    // which relies on local variables will throw NPE whereas if returning a random boolean
+    // then the stub can't function in data structures which require equals to function
+    // The compromise is to to use the default equals method where the objects are the same instance
+    private static final MethodInterceptor EQUALS = (obj, method, args, proxy) -> args.length == 1 && obj == args[0];
+
+    // Hashcode cannot reliably be ignored or proxied. If ignored then an implementation
+    // which relies on local variables will throw NPE whereas if returning a random number
+    // then the stub can't function in data structures which require consistent hashcodes
+    // The compromise is to to use the identity hashcode
+    private static final MethodInterceptor HASHCODE = (obj, method, args, proxy) -> identityHashCode(obj);
+
+    /**
+     * Proxy types keyed by the raw type they stub. A {@link ClassValue} ties each proxy type to the lifetime of the
+     * type it was generated for so the cache never pins a test class loader.
+     */
+    private static final ClassValue<StubProxyType> PROXY_TYPES = new ClassValue<StubProxyType>() {
+
+        @Override
+        protected StubProxyType computeValue(final Class<?> rawType) {
+            long start = StubMetrics.start();
+            StubProxyType proxyType = new StubProxyType(rawType);
+            StubMetrics.proxyClassGenerated(rawType, start);
+            LOG.debug("Generate Proxy Type [{}] for [{}]", proxyType.getProxyType().getName(), rawType.getName());
+            return proxyType;
+        }
+    };
+
+    @Override
+    public boolean canProxy(final Class<?> type) {
+        return !Modifier.isFinal(type.getModifiers()) && !type.isPrimitive() && !type.isArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(final Class<T> type, final MethodValueFactory values) {
+        StubProxyType proxyType = PROXY_TYPES.get(type);
+        T instance = (T) Instantiators.instantiatorOf(proxyType.getProxyType()).createValue();
+        ((Factory) instance).setCallbacks(createCallbacks(type, proxyType, values));
+        LOG.debug("Produce Proxy Instance [{}] for [{}]", identityHashCode(instance), type.getName());
+        return instance;
+    }
+
+    /**
+     * Create the callbacks for a single proxy instance of the given proxy type. Each method which returns a stubbed
+     * value is given its own callback so the value is memoised in the callback's slot on the proxy.
+     */
+    private Callback[] createCallbacks(final Class<?> type,
+            final StubProxyType proxyType,
+            final MethodValueFactory values) {
+        Callback[] callbacks = new Callback[StubProxyType.FIRST_VALUE + proxyType.getValueMethodCount()];
+        callbacks[StubProxyType.EQUALS] = EQUALS;
+        callbacks[StubProxyType.HASHCODE] = HASHCODE;
+        callbacks[StubProxyType.PASSTHROUGH] = NoOp.INSTANCE;
+        for (int i = 0; i < proxyType.getValueMethodCount(); ++i) {
+            callbacks[StubProxyType.FIRST_VALUE + i] = new StubValue(type, proxyType.getValueMethod(i), values);
+        }
+        return callbacks;
+    }
+
+    @Override
+    public void prepare(final Class<?> type) {
+        PROXY_TYPES.get(type);
+    }
+
+    @Override
+    public String toString() {
+        return "CglibStubProxyEngine";
+    }
+
+    private static class StubValue implements FixedValue {
+
+        private final Class<?> type;
+        private final Method method;
+        private final MethodValueFactory values;
+        private volatile boolean created;
+        private Object value;
+
+        private StubValue(final Class<?> type, final Method method, final MethodValueFactory values) {
+            this.type = type;
+            this.method = method;
+            this.values = values;
+        }
+
+        @Override
+        public Object loadObject() {
+            if (!this.created) {
+                synchronized (this) {
+                    if (!this.created) {
+                        StubMetrics.returnValue(this.type, false);
+                        this.value = this.values.createValue(this.method);
+                        this.created = true;
+                        return this.value;
+                    }
+                }
+            }
+            StubMetrics.returnValue(this.type, true);
+            return this.value;
+        }
+    }
+}
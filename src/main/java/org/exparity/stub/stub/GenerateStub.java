@@ -0,0 +1,36 @@
+package org.exparity.stub.stub;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mark an interface or abstract class for which a stub class should be generated at compile time. The stub class is
+ * generated by the {@link org.exparity.stub.processor.StubProcessor} and is used by the {@link StubBuilder} in
+ * preference to a stub generated at runtime. For example
+ * </p>
+ *
+ * <pre>
+ * &#064;GenerateStub
+ * public interface Person {
+ *     String getFirstName();
+ * }
+ * </pre>
+ *
+ * Types which cannot be annotated, for example types from another library, can be listed in the
+ * <code>exparity.stub.types</code> processor option instead.
+ *
+ * @author Stewart Bissett
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateStub {
+
+    /**
+     * The suffix appended to the binary name of a type to name the stub class generated for it
+     */
+    public static final String SUFFIX = "$$PrecompiledStub";
+}
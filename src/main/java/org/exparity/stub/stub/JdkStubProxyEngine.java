@@ -0,0 +1,207 @@
+package org.exparity.stub.stub;
+
+import static java.lang.System.identityHashCode;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.exparity.stub.core.StubMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link StubProxyEngine} which uses {@link Proxy} to stub interfaces
+ *
+ * @author Stewart Bissett
+ */
+class JdkStubProxyEngine implements StubProxyEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdkStubProxyEngine.class);
+
+    private static final Object NOT_CREATED = new Object();
+    private static final InvocationHandler UNUSED = (proxy, method, args) -> {
+        throw new UnsupportedOperationException(method.toString());
+    };
+
+    private static final ClassValue<JdkProxyType> PROXY_TYPES = new ClassValue<JdkProxyType>() {
+
+        @Override
+        protected JdkProxyType computeValue(final Class<?> rawType) {
+            long start = StubMetrics.start();
+            JdkProxyType proxyType = new JdkProxyType(rawType);
+            StubMetrics.proxyClassGenerated(rawType, start);
+            LOG.debug("Generate Proxy Type [{}] for [{}]", proxyType.proxyClass.getName(), rawType.getName());
+            return proxyType;
+        }
+    };
+
+    @Override
+    public boolean canProxy(final Class<?> type) {
+        return type.isInterface();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(final Class<T> type, final MethodValueFactory values) {
+        if (!canProxy(type)) {
+            throw new StubBuilderException("Unable to proxy '" + type.getName() + "' using " + this);
+        }
+        JdkProxyType proxyType = PROXY_TYPES.get(type);
+        T instance = (T) Proxy.newProxyInstance(type.getClassLoader(),
+                proxyType.interfaces,
+                new StubInvocationHandler(proxyType, values));
+        LOG.debug("Produce Proxy Instance [{}] for [{}]", identityHashCode(instance), type.getName());
+        return instance;
+    }
+
+    @Override
+    public void prepare(final Class<?> type) {
+        if (canProxy(type)) {
+            PROXY_TYPES.get(type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JdkStubProxyEngine";
+    }
+
+    /**
+     * The proxy class generated for a stubbed interface together with its dispatch table. The dispatch table is
+     * computed once per interface and maps each method the proxy can be called with to equals, hashCode, an abstract
+     * method, or the slot holding its stubbed value, so each call is answered with a single lookup.
+     */
+    private static class JdkProxyType {
+
+        private static final int EQUALS = -1, HASHCODE = -2, ABSTRACT = -3;
+
+        private final Class<?> rawType;
+        private final Class<?>[] interfaces;
+        private final Class<?> proxyClass;
+        private final Map<Method, Integer> dispatch = new HashMap<>();
+        private int slotCount;
+
+        private JdkProxyType(final Class<?> rawType) {
+            this.rawType = rawType;
+            for (Method method : rawType.getMethods()) {
+                addDispatch(method);
+            }
+            addDispatch(objectMethod("equals", Object.class));
+            addDispatch(objectMethod("hashCode"));
+            addDispatch(objectMethod("toString"));
+            this.interfaces = new Class<?>[] { rawType };
+            // Proxy caches the class it generates for each set of interfaces so creating an unused instance here
+            // generates the class before the first stub is created
+            try {
+                this.proxyClass = Proxy.newProxyInstance(rawType.getClassLoader(), this.interfaces, UNUSED).getClass();
+            } catch (IllegalArgumentException e) {
+                throw new StubBuilderException("Failed to create proxy type for '" + rawType.getName() + "'", e);
+            }
+        }
+
+        private void addDispatch(final Method method) {
+            if (!this.dispatch.containsKey(method)) {
+                int dispatch = dispatchOf(method);
+                this.dispatch.put(method, dispatch < 0 ? dispatch : this.slotCount++);
+            }
+        }
+
+        /**
+         * Return the dispatch of the method, or zero if it is answered with a stubbed value. See StubProxyType
+         */
+        private static int dispatchOf(final Method method) {
+            switch (method.getName()) {
+            case "equals":
+                return method.getParameterCount() == 1 ? EQUALS : 0;
+            case "hashCode":
+                return method.getParameterCount() == 0 ? HASHCODE : 0;
+            case "iterator":
+            case "finalize":
+                return ABSTRACT;
+            default:
+                return 0;
+            }
+        }
+
+        private static Method objectMethod(final String name, final Class<?>... parameterTypes) {
+            try {
+                return Object.class.getMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class StubInvocationHandler implements InvocationHandler {
+
+        private final JdkProxyType proxyType;
+        private final MethodValueFactory values;
+        private final AtomicReferenceArray<Object> slots;
+        private Map<Method, Object> unslotted;
+
+        private StubInvocationHandler(final JdkProxyType proxyType, final MethodValueFactory values) {
+            this.proxyType = proxyType;
+            this.values = values;
+            this.slots = new AtomicReferenceArray<>(proxyType.slotCount);
+            for (int i = 0; i < this.slots.length(); ++i) {
+                this.slots.lazySet(i, NOT_CREATED);
+            }
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            Integer dispatch = this.proxyType.dispatch.get(method);
+            if (dispatch == null) {
+                return unslottedValue(method);
+            }
+            int slot = dispatch;
+            // equals and hashcode use the identity of the proxy. See CglibStubProxyEngine
+            switch (slot) {
+            case JdkProxyType.EQUALS:
+                return proxy == args[0];
+            case JdkProxyType.HASHCODE:
+                return identityHashCode(proxy);
+            case JdkProxyType.ABSTRACT:
+                throw new AbstractMethodError(method.toString());
+            default:
+                break;
+            }
+            Object value = this.slots.get(slot);
+            if (value == NOT_CREATED) {
+                synchronized (this) {
+                    value = this.slots.get(slot);
+                    if (value == NOT_CREATED) {
+                        StubMetrics.returnValue(this.proxyType.rawType, false);
+                        value = this.values.createValue(method);
+                        this.slots.set(slot, value);
+                        return value;
+                    }
+                }
+            }
+            StubMetrics.returnValue(this.proxyType.rawType, true);
+            return value;
+        }
+
+        /**
+         * Return the value for a method the proxy type has no slot for, creating it on the first call so the method
+         * returns the same value on every call as it does for a method with a slot
+         */
+        private synchronized Object unslottedValue(final Method method) {
+            if (this.unslotted == null) {
+                this.unslotted = new HashMap<>();
+            }
+            if (!this.unslotted.containsKey(method)) {
+                StubMetrics.returnValue(this.proxyType.rawType, false);
+                Object value = this.values.createValue(method);
+                this.unslotted.put(method, value);
+                return value;
+            }
+            StubMetrics.returnValue(this.proxyType.rawType, true);
+            return this.unslotted.get(method);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.exparity.stub.stub;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+import org.exparity.stub.random.RandomSource;
+
+/**
+ * A read-only list of a fixed size whose elements are created when they are accessed rather than when the list is
+ * created. Each index is created from its own random seed so leaf values, such as strings and numbers, are the same
+ * each time an index is accessed without the list holding on to them. The most recently accessed elements can be kept
+ * in a small least-recently-used cache so repeated access to the same elements returns the same instances.
+ *
+ * @author Stewart Bissett
+ */
+class LazyList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final int size;
+    private final Supplier<E> elements;
+    private final long seed;
+    private final Map<Integer, E> cache;
+
+    /**
+     * @param size the size of the list
+     * @param elements the factory to create each element from
+     * @param cacheSize the number of elements to hold in the cache, or zero to create the element on every access
+     */
+    LazyList(final int size, final Supplier<E> elements, final int cacheSize) {
+        this.size = size;
+        this.elements = elements;
+        this.seed = RandomSource.current().nextLong();
+        this.cache = cacheSize > 0 ? new LeastRecentlyUsed<>(cacheSize) : null;
+    }
+
+    @Override
+    public E get(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        } else if (this.cache == null) {
+            return createElement(index);
+        }
+        synchronized (this.cache) {
+            E element = this.cache.get(index);
+            if (element == null) {
+                element = createElement(index);
+                this.cache.put(index, element);
+            }
+            return element;
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private E createElement(final int index) {
+        return RandomSource.withSeed(RandomSource.seedFor(this.seed, index), this.elements);
+    }
+
+    @SuppressWarnings("serial")
+    private static class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+
+        private LeastRecentlyUsed(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > this.capacity;
+        }
+    }
+}
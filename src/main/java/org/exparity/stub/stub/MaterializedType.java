@@ -0,0 +1,228 @@
+package org.exparity.stub.stub;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.cglib.asm.ClassWriter;
+import net.sf.cglib.asm.Label;
+import net.sf.cglib.asm.Type;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.DebuggingClassWriter;
+import net.sf.cglib.core.EmitUtils;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.proxy.Enhancer;
+
+/**
+ * A class generated for a stubbed type which answers every stubbed method from a final field. Instances are populated
+ * once when they are materialised so reading a value is a plain field read with no interceptor on the call path.
+ *
+ * @author Stewart Bissett
+ */
+class MaterializedType {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final Signature IDENTITY_HASHCODE = new Signature("identityHashCode", "(Ljava/lang/Object;)I");
+    private static final int OVERRIDE_MASK = Modifier.PUBLIC | Modifier.PROTECTED;
+
+    private final List<Method> methods = new ArrayList<>();
+    private final List<Method> voidMethods = new ArrayList<>();
+    private final Field[] fields;
+    private final Class<?> materializedType;
+
+    MaterializedType(final Class<?> rawType) {
+        Set<Signature> signatures = new HashSet<>();
+        for (Method method : getMethods(rawType)) {
+            if (isMaterializable(rawType, method) && signatures.add(ReflectUtils.getSignature(method))) {
+                if (method.getReturnType() == void.class) {
+                    this.voidMethods.add(method);
+                } else {
+                    this.methods.add(method);
+                }
+            }
+        }
+        this.materializedType = createMaterializedType(rawType);
+        this.fields = new Field[this.methods.size()];
+        for (int i = 0; i < this.fields.length; ++i) {
+            try {
+                this.fields[i] = this.materializedType.getDeclaredField(fieldName(i));
+                this.fields[i].setAccessible(true);
+            } catch (NoSuchFieldException e) {
+                throw new StubBuilderException("Failed to find field for " + this.methods.get(i), e);
+            }
+        }
+    }
+
+    public Class<?> getMaterializedType() {
+        return this.materializedType;
+    }
+
+    /**
+     * Return the number of methods which are answered from a field
+     */
+    public int getValueMethodCount() {
+        return this.methods.size();
+    }
+
+    /**
+     * Return the method answered by the field at the given position
+     */
+    public Method getValueMethod(final int position) {
+        return this.methods.get(position);
+    }
+
+    /**
+     * Assign the value of the field at the given position on a materialised instance
+     */
+    public void setValue(final Object instance, final int position, final Object value) {
+        Field field = this.fields[position];
+        if (value == null && field.getType().isPrimitive()) {
+            return;
+        }
+        try {
+            field.set(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new StubBuilderException("Failed to assign value for " + this.methods.get(position), e);
+        }
+    }
+
+    private Class<?> createMaterializedType(final Class<?> rawType) {
+        String className = classNameFor(rawType);
+        Type superType = Type.getType(rawType.isInterface() ? Object.class : rawType);
+        Type[] interfaces = rawType.isInterface() ? new Type[] { Type.getType(rawType) } : null;
+
+        DebuggingClassWriter writer = new DebuggingClassWriter(ClassWriter.COMPUTE_MAXS);
+        ClassEmitter ce = new ClassEmitter(writer);
+        ce.begin_class(Constants.V1_2,
+                Constants.ACC_PUBLIC | Constants.ACC_FINAL,
+                className,
+                superType,
+                interfaces,
+                Constants.SOURCE_FILE);
+        for (int i = 0; i < this.methods.size(); ++i) {
+            Method method = this.methods.get(i);
+            ce.declare_field(Constants.ACC_PRIVATE | Constants.ACC_FINAL,
+                    fieldName(i),
+                    Type.getType(method.getReturnType()),
+                    null);
+            CodeEmitter e = beginOverride(ce, method);
+            e.load_this();
+            e.getfield(fieldName(i));
+            e.return_value();
+            e.end_method();
+        }
+        for (Method method : this.voidMethods) {
+            CodeEmitter e = beginOverride(ce, method);
+            e.return_value();
+            e.end_method();
+        }
+        if (isOverridable(rawType, "equals", Object.class)) {
+            emitIdentityEquals(ce);
+        }
+        if (isOverridable(rawType, "hashCode")) {
+            emitIdentityHashCode(ce);
+        }
+        ce.end_class();
+
+        try {
+            ClassLoader loader = rawType.getClassLoader() != null ? rawType.getClassLoader() : MaterializedType.class
+                    .getClassLoader();
+            return ReflectUtils.defineClass(className, writer.toByteArray(), loader);
+        } catch (Exception e) {
+            throw new StubBuilderException("Failed to generate materialised type for " + rawType.getName(), e);
+        }
+    }
+
+    private CodeEmitter beginOverride(final ClassEmitter ce, final Method method) {
+        return EmitUtils.begin_method(ce, ReflectUtils.getMethodInfo(method), method.getModifiers() & OVERRIDE_MASK);
+    }
+
+    // equals and hashcode use identity for the same reasons as the stub proxies. See Stub
+    private void emitIdentityEquals(final ClassEmitter ce) {
+        CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC,
+                new Signature("equals", Type.BOOLEAN_TYPE, new Type[] { Constants.TYPE_OBJECT }),
+                null);
+        Label notSame = e.make_label();
+        e.load_this();
+        e.load_arg(0);
+        e.if_cmp(Constants.TYPE_OBJECT, CodeEmitter.NE, notSame);
+        e.push(1);
+        e.return_value();
+        e.mark(notSame);
+        e.push(0);
+        e.return_value();
+        e.end_method();
+    }
+
+    private void emitIdentityHashCode(final ClassEmitter ce) {
+        CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, new Signature("hashCode", Type.INT_TYPE, new Type[0]), null);
+        e.load_this();
+        e.invoke_static(Constants.TYPE_SYSTEM, IDENTITY_HASHCODE);
+        e.return_value();
+        e.end_method();
+    }
+
+    private static String classNameFor(final Class<?> rawType) {
+        String prefix = rawType.getName().startsWith("java") ? "$" : "";
+        return prefix + rawType.getName() + "$$MaterializedByStub$$" + COUNTER.incrementAndGet();
+    }
+
+    private static String fieldName(final int position) {
+        return "value" + position;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Method> getMethods(final Class<?> rawType) {
+        List<Method> methods = new ArrayList<>();
+        if (rawType.isInterface()) {
+            Enhancer.getMethods(Object.class, new Class<?>[] { rawType }, methods);
+        } else {
+            Enhancer.getMethods(rawType, null, methods);
+        }
+        return methods;
+    }
+
+    private static boolean isMaterializable(final Class<?> rawType, final Method method) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isPrivate(modifiers)) {
+            return false;
+        } else if (method.isBridge() || method.isSynthetic()) {
+            return false;
+        } else if (method.getDeclaringClass() == Object.class && !"toString".equals(method.getName())) {
+            return false;
+        } else if ((modifiers & OVERRIDE_MASK) == 0 && !isSamePackage(rawType, method.getDeclaringClass())) {
+            return false;
+        }
+        switch (method.getName()) {
+        case "equals":
+        case "hashCode":
+        case "iterator":
+        case "finalize":
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    private static boolean isOverridable(final Class<?> rawType, final String name, final Class<?>... parameterTypes) {
+        try {
+            return !Modifier.isFinal(rawType.getMethod(name, parameterTypes).getModifiers());
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static boolean isSamePackage(final Class<?> type, final Class<?> other) {
+        return Objects.equals(type.getPackage(), other.getPackage()) && type.getClassLoader() == other
+                .getClassLoader();
+    }
+}
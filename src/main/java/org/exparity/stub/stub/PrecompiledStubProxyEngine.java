@@ -0,0 +1,73 @@
+package org.exparity.stub.stub;
+
+import static java.lang.System.identityHashCode;
+
+import java.lang.reflect.Constructor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link StubProxyEngine} which uses the stub classes generated at compile time for types annotated with
+ * {@link GenerateStub}. It can only proxy types whose generated stub class is on the classpath.
+ *
+ * @author Stewart Bissett
+ */
+class PrecompiledStubProxyEngine implements StubProxyEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrecompiledStubProxyEngine.class);
+
+    /**
+     * Constructors of the generated stub classes keyed by the raw type they stub, or null if no stub class was
+     * generated for the type.
+     */
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+
+        @Override
+        protected Constructor<?> computeValue(final Class<?> rawType) {
+            if (rawType.isPrimitive() || rawType.isArray()) {
+                return null;
+            }
+            try {
+                Class<?> stubType = Class.forName(rawType.getName() + GenerateStub.SUFFIX,
+                        false,
+                        rawType.getClassLoader());
+                if (!rawType.isAssignableFrom(stubType)) {
+                    return null;
+                }
+                Constructor<?> constructor = stubType.getDeclaredConstructor(MethodValueFactory.class);
+                constructor.setAccessible(true);
+                LOG.debug("Found Precompiled Stub Type [{}] for [{}]", stubType.getName(), rawType.getName());
+                return constructor;
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    @Override
+    public boolean canProxy(final Class<?> type) {
+        return CONSTRUCTORS.get(type) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(final Class<T> type, final MethodValueFactory values) {
+        Constructor<?> constructor = CONSTRUCTORS.get(type);
+        if (constructor == null) {
+            throw new StubBuilderException("No precompiled stub for '" + type.getName() + "'");
+        }
+        try {
+            T instance = (T) constructor.newInstance(values);
+            LOG.debug("Produce Precompiled Instance [{}] for [{}]", identityHashCode(instance), type.getName());
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new StubBuilderException("Failed to instantiate precompiled stub for '" + type.getName() + "'", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PrecompiledStubProxyEngine";
+    }
+}
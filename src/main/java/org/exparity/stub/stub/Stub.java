@@ -1,12 +1,10 @@
 
 package org.exparity.stub.stub;
 
-import static java.lang.System.identityHashCode;
 import static org.exparity.stub.core.ValueFactories.*;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
@@ -23,17 +21,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
+import org.exparity.stub.core.StubMetrics;
 import org.exparity.stub.core.ValueFactory;
+import org.exparity.stub.random.RandomSource;
+import org.exparity.stub.stub.StubProxyEngine.MethodValueFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.sf.cglib.proxy.MethodInterceptor;
-import net.sf.cglib.proxy.MethodProxy;
-
-class Stub<T> implements MethodInterceptor {
+class Stub<T> implements MethodValueFactory {
 
     @SuppressWarnings({ "serial", "rawtypes" })
     private static final Map<Class<?>, ValueFactory> RANDOM_FACTORIES = new HashMap<Class<?>, ValueFactory>() {
@@ -71,100 +67,130 @@ class Stub<T> implements MethodInterceptor {
 
     private final StubDefinition<T> definition;
     private final StubFactory factory;
+    private final StubGraph graph;
+    private final int depth;
+    private final Long seed;
 
-    public Stub(final StubDefinition<T> definition, final StubFactory factory) {
+    public Stub(final StubDefinition<T> definition, final StubFactory factory, final StubGraph graph, final int depth) {
         this.definition = definition;
         this.factory = factory;
+        this.graph = graph;
+        this.depth = depth;
+        // A stub created with a seed, such as an element of a lazy collection, creates the values of its methods from
+        // the same seed whenever they are first called so a stub created again from the seed has the same values
+        this.seed = RandomSource.isSeeded() ? RandomSource.current().nextLong() : null;
     }
 
-    private final ConcurrentMap<Integer, ConcurrentMap<Method, Object>> cache = new ConcurrentHashMap<>();
-
     @Override
-    public Object intercept(final Object obj, final Method method, final Object[] args, final MethodProxy proxy)
-            throws Throwable {
-        if (isEquals(method)) {
-            // equals cannot reliably be ignored or proxied. If ignored then an implementation
-            // which relies on local variables will throw NPE whereas if returning a random boolean
-            // then the stub can't function in data structures which require equals to function
-            // The compromise is to to use the default equals method where the objects are the same instance
-            return args.length == 1 && obj == args[0];
-        } else if (isHashCode(method)) {
-            // Hashcode cannot reliably be ignored or proxied. If ignored then an implementation
-            // which relies on local variables will throw NPE whereas if returning a random number
-            // then the stub can't function in data structures which require consistent hashcodes
-            // The compromise is to to use the identity hashcode
-            return System.identityHashCode(obj);
-        } else if (isProxiableMethod(method)) {
-            LOG.debug("Proxy method [{}]", proxy.getSignature());
-            cache.putIfAbsent(identityHashCode(obj), new ConcurrentHashMap<Method, Object>());
-            ConcurrentMap<Method, Object> cachedMethod = cache.get(identityHashCode(obj));
-            cachedMethod.computeIfAbsent(method,
-                    (m) -> createValue(new StubDefinition<>(m.getGenericReturnType(),
-                            this.definition)));
-            return cachedMethod.get(method);
-        } else {
-            return proxy.invokeSuper(obj, args);
+    public Object createValue(final Method method) {
+        LOG.debug("Create value for [{}]", method);
+        StubDefinition<?> returnDefinition = this.definition.getReturnDefinition(method);
+        if (this.seed != null) {
+            return RandomSource.withSeed(RandomSource.seedFor(this.seed, method.toGenericString().hashCode()),
+                    () -> createValue(returnDefinition, this.depth + 1));
         }
+        return createValue(returnDefinition, this.depth + 1);
     }
 
     public Class<T> getRawType() {
         return this.definition.getActualType();
     }
 
+    private <E> E createValue(final StubDefinition<E> definition, final int depth) {
+        long start = StubMetrics.start();
+        E value = createNewValue(definition, depth);
+        if (value != null) {
+            StubMetrics.objectCreated(definition.getActualType(), start);
+        }
+        return value;
+    }
+
     @SuppressWarnings({ "unchecked" })
-    private <E> E createValue(final StubDefinition<E> definition) {
+    private <E> E createNewValue(final StubDefinition<E> definition, final int depth) {
 
-        Class<?> type = definition.getActualType();
-        Optional<ValueFactory<?>> override = definition.getOverrideValueFactoryByType(type);
+        Class<E> type = definition.getActualType();
+        Optional<ValueFactory<E>> override = definition.getOverrideValueFactoryByType(type);
         if (override.isPresent()) {
-            return (E) override.get().createValue();
+            return override.get().createValue();
         }
 
         if (type.isArray()) {
-            return (E) createArray(type.getComponentType());
+            if (!this.graph.tryCreate(depth)) {
+                return (E) Array.newInstance(type.getComponentType(), 0);
+            }
+            return (E) createArray(definition.getNestedDefinition(type.getComponentType()),
+                    definition.aRandomCollectionSize(),
+                    depth);
         } else {
-            if (Map.class.isAssignableFrom(type)) {
-                Type keyType = definition.getTypeByParameter("K");
-                Type valueType = definition.getTypeByParameter("V");
-                return (E) createMap(keyType, valueType, definition.aRandomCollectionSize());
+            if (isCollection(type) && !this.graph.tryCreate(depth)) {
+                LOG.debug("Budget exhausted. Return empty [{}] for [{}]", type.getSimpleName(), definition.describe());
+                return (E) createEmptyCollection(type);
+            } else if (Map.class.isAssignableFrom(type)) {
+                StubDefinition<?> keyDefinition = definition.getNestedDefinition(definition.getTypeByParameter("K"));
+                StubDefinition<?> valueDefinition = definition.getNestedDefinition(definition.getTypeByParameter("V"));
+                return (E) createMap(keyDefinition, valueDefinition, definition.aRandomCollectionSize(), depth);
             } else if (Set.class.isAssignableFrom(type)) {
-                Type elementType = definition.getTypeByParameter("E");
-                return (E) createSet(elementType, definition.aRandomCollectionSize());
+                StubDefinition<?> elementDefinition = definition.getNestedDefinition(definition.getTypeByParameter("E"));
+                return (E) createSet(elementDefinition, definition.aRandomCollectionSize(), depth);
             } else if (List.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)) {
-                Type elementType = definition.getTypeByParameter("E");
-                return (E) createList(elementType, definition.aRandomCollectionSize());
+                StubDefinition<?> elementDefinition = definition.getNestedDefinition(definition.getTypeByParameter("E"));
+                if (definition.isLazyCollections()) {
+                    return (E) createLazyList(elementDefinition, definition, depth);
+                }
+                return (E) createList(elementDefinition, definition.aRandomCollectionSize(), depth);
             } else {
                 ValueFactory<?> factory = RANDOM_FACTORIES.get(type);
                 if (factory != null) {
                     return (E) factory.createValue();
                 } else if (type.isEnum()) {
-                    return (E) aRandomEnum(type).createValue();
+                    return aRandomEnum(type).createValue();
                 } else if (type == Void.TYPE) {
                     return (E) Void.TYPE;
+                } else if (!this.graph.tryCreate(depth)) {
+                    LOG.debug("Budget exhausted. Return null for [{}]", definition.describe());
+                    return null;
                 } else {
-                    return this.factory.createStub(definition);
+                    return this.factory.createStub(definition, this.graph, depth);
                 }
             }
         }
 
     }
 
-    private <E> Object createArray(final Class<E> type) {
-        Object array = Array.newInstance(type, this.definition.aRandomCollectionSize());
-        for (int i = 0; i < Array.getLength(array); ++i) {
-            Array.set(array,
-                    i,
-                    createValue(new StubDefinition<E>(type,
-                            this.definition)));
+    private static boolean isCollection(final Class<?> type) {
+        return Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type);
+    }
+
+    private static Object createEmptyCollection(final Class<?> type) {
+        if (Map.class.isAssignableFrom(type)) {
+            return new HashMap<>();
+        } else if (Set.class.isAssignableFrom(type)) {
+            return new HashSet<>();
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    private <E> Object createArray(final StubDefinition<E> definition, final int length, final int depth) {
+        Object array = Array.newInstance(definition.getActualType(), length);
+        for (int i = 0; i < length; ++i) {
+            Array.set(array, i, createValue(definition, depth));
         }
         return array;
     }
 
-    private <E> Set<E> createSet(final Type type, final int length) {
+    private <E> LazyList<E> createLazyList(final StubDefinition<E> elementDefinition,
+            final StubDefinition<?> definition,
+            final int depth) {
+        return new LazyList<>(definition.aRandomCollectionSize(),
+                () -> createValue(elementDefinition, depth),
+                definition.getLazyCollectionCacheSize());
+    }
+
+    private <E> Set<E> createSet(final StubDefinition<E> definition, final int length, final int depth) {
         Set<E> set = new HashSet<>();
         for (int i = 0; i < length; ++i) {
-            E value = createValue(new StubDefinition<E>(type,
-                    this.definition));
+            E value = createValue(definition, depth);
             if (value != null) {
                 set.add(value);
             }
@@ -172,11 +198,10 @@ class Stub<T> implements MethodInterceptor {
         return set;
     }
 
-    private <E> List<E> createList(final Type type, final int length) {
+    private <E> List<E> createList(final StubDefinition<E> definition, final int length, final int depth) {
         List<E> list = new ArrayList<>();
         for (int i = 0; i < length; ++i) {
-            E value = createValue(new StubDefinition<E>(type,
-                    this.definition));
+            E value = createValue(definition, depth);
             if (value != null) {
                 list.add(value);
             }
@@ -184,38 +209,20 @@ class Stub<T> implements MethodInterceptor {
         return list;
     }
 
-    private <K, V> Map<K, V> createMap(final Type keyType, final Type valueType, final int length) {
+    private <K, V> Map<K, V> createMap(final StubDefinition<K> keyDefinition,
+            final StubDefinition<V> valueDefinition,
+            final int length,
+            final int depth) {
         Map<K, V> map = new HashMap<>();
         for (int i = 0; i < length; ++i) {
-            K key = createValue(new StubDefinition<K>(keyType,
-                    this.definition));
+            K key = createValue(keyDefinition, depth);
             if (key != null) {
-                map.put(key,
-                        createValue(new StubDefinition<V>(valueType,
-                                this.definition)));
+                map.put(key, createValue(valueDefinition, depth));
             }
         }
         return map;
     }
 
-    private boolean isEquals(final Method method) {
-        return "equals".equals(method.getName());
-    }
-
-    private boolean isHashCode(final Method method) {
-        return "hashcode".equals(method.getName());
-    }
-
-    private boolean isProxiableMethod(final Method method) {
-        switch (method.getName()) {
-        case "iterator":
-        case "finalize":
-            return false;
-        default:
-            return method.getReturnType() != null;
-        }
-    }
-
     @Override
     public String toString() {
         return "Stub [" + this.definition.describe() + "]";
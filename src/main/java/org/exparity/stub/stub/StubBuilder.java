@@ -66,15 +66,13 @@ public class StubBuilder<T> {
         return new StubBuilder<>(type.getType());
     }
 
-    private final StubDefinition<T> definition;
+    private final Type type;
+    private final StubSettings settings = new StubSettings();
     private final StubFactory factory = new StubFactory();
+    private StubDefinition<T> definition;
 
     private StubBuilder(final Type type) {
-        this.definition = new StubDefinition<>(type);
-    }
-
-    private StubBuilder(final Class<T> type) {
-        this.definition = new StubDefinition<>(type);
+        this.type = type;
     }
 
     /**
@@ -92,7 +90,8 @@ public class StubBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public <V> StubBuilder<T> with(final Class<V> type, final ValueFactory<V> factory) {
-        this.definition.addOverride(type, factory);
+        this.settings.addOverride(type, factory);
+        this.definition = null;
         return this;
     }
 
@@ -111,8 +110,7 @@ public class StubBuilder<T> {
      * @param factory the factory to use to create the value
      */
     public <X> StubBuilder<T> factory(final Class<X> type, final ValueFactory<X> factory) {
-        this.definition.addOverride(type, factory);
-        return this;
+        return with(type, factory);
     }
 
     /**
@@ -146,10 +144,114 @@ public class StubBuilder<T> {
      * @param max the maximum size to create the collections
      */
     public StubBuilder<T> collectionSizeRangeOf(final int min, final int max) {
-        this.definition.setCollectionSizeRange(min, max);
+        this.settings.setCollectionSizeRange(min, max);
+        this.definition = null;
+        return this;
+    }
+
+    /**
+     * Configure the builder to return lists and collections as read-only views which create each element when it is
+     * accessed. Useful with large collection sizes as the elements are never all held in memory. Each element is
+     * created from its own random seed, which a stub element also creates its values from, so leaf values are the same
+     * each time an element is accessed. Maps, like sets and arrays, are still created in full as their keys must be
+     * distinct, which cannot be known without creating every key.
+     * <p/>
+     * An element which is a stub is created again on each access and stubs are equal only to themselves, so
+     * <code>contains</code> and <code>indexOf</code> do not find a stub element previously returned by the list.
+     * Elements which are values, such as strings and numbers, are equal on each access. Use
+     * {@link #lazyCollections(int)} to return the same stub while it remains in the cache. For example
+     * </p>
+     *
+     * <pre>
+     * Catalogue aCatalogue = StubBuilder.aRandomInstanceOf(Catalogue.class)
+     *                        .collectionSizeRangeOf(100_000, 1_000_000)
+     *                        .lazyCollections()
+     *                        .build()
+     * </pre>
+     */
+    public StubBuilder<T> lazyCollections() {
+        return lazyCollections(0);
+    }
+
+    /**
+     * Configure the builder to return lists and collections as read-only views which create each element when it is
+     * accessed and keep the most recently accessed elements. Repeated access to a cached element returns the same
+     * instance, but an element created again after it leaves the cache is a different stub. Maps, sets and arrays are
+     * still created in full. For example
+     * </p>
+     *
+     * <pre>
+     * Catalogue aCatalogue = StubBuilder.aRandomInstanceOf(Catalogue.class)
+     *                        .collectionSizeRangeOf(100_000, 1_000_000)
+     *                        .lazyCollections(100)
+     *                        .build()
+     * </pre>
+     *
+     * @param cacheSize the number of elements to keep for each collection
+     */
+    public StubBuilder<T> lazyCollections(final int cacheSize) {
+        this.settings.setLazyCollections(true, cacheSize);
+        this.definition = null;
         return this;
     }
 
+    /**
+     * Configure the builder to stop creating stubs and collections deeper than the given depth. The stub being built
+     * has a depth of zero and the values it returns have a depth of one. Past the maximum depth methods returning a
+     * stub return null, and methods returning a collection, map, or array return an empty one. For example
+     * </p>
+     *
+     * <pre>
+     * TreeNode aTree = StubBuilder.aRandomStubOf(TreeNode.class)
+     *                        .maxDepth(5)
+     *                        .build()
+     * </pre>
+     *
+     * @param maxDepth the maximum depth of the stub graph
+     */
+    public StubBuilder<T> maxDepth(final int maxDepth) {
+        this.settings.setMaxDepth(maxDepth);
+        this.definition = null;
+        return this;
+    }
+
+    /**
+     * Configure the builder to stop creating stubs and collections once the given number have been created for a
+     * single stub. Past the maximum methods returning a stub return null, and methods returning a collection, map, or
+     * array return an empty one. Use {@link #countObjectsIn(Object)} to find how many were created. For example
+     * </p>
+     *
+     * <pre>
+     * TreeNode aTree = StubBuilder.aRandomStubOf(TreeNode.class)
+     *                        .maxObjects(10_000)
+     *                        .build()
+     * </pre>
+     *
+     * @param maxObjects the maximum number of stubs and collections in the stub graph
+     */
+    public StubBuilder<T> maxObjects(final int maxObjects) {
+        this.settings.setMaxObjects(maxObjects);
+        this.definition = null;
+        return this;
+    }
+
+    /**
+     * Return the number of stubs and collections created so far for a stub built with a {@link #maxDepth(int)} or
+     * {@link #maxObjects(int)}. The stub itself is included in the count. For example
+     * </p>
+     *
+     * <pre>
+     * TreeNode aTree = StubBuilder.aRandomStubOf(TreeNode.class).maxObjects(10_000).build();
+     * walk(aTree);
+     * int created = StubBuilder.countObjectsIn(aTree);
+     * </pre>
+     *
+     * @param stub a stub built by a {@link StubBuilder} with a maximum depth or number of objects
+     */
+    public static int countObjectsIn(final Object stub) {
+        return StubFactory.getObjectCount(stub);
+    }
+
     /**
      * Configure the builder to use a particular subtype when instantiating a
      * super type. For example
@@ -187,6 +289,43 @@ public class StubBuilder<T> {
         return with(supertype, oneOf(createInstanceOfFactoriesForTypes(subtypes)));
     }
 
+    /**
+     * Configure the builder to use a particular {@link StubProxyEngine} to create the stub and any stubs it returns. If
+     * not configured the engine returned by {@link StubProxyEngines#getDefault()} is used. Any type the engine cannot
+     * proxy is created using {@link StubProxyEngines#cglib()}. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = StubBuilder.aRandomInstanceOf(Person.class)
+     *                        .engine(StubProxyEngines.jdkProxy())
+     *                        .build()
+     * </pre>
+     *
+     * @param engine the engine to use to create stubs
+     */
+    public StubBuilder<T> engine(final StubProxyEngine engine) {
+        this.factory.setEngine(engine);
+        return this;
+    }
+
+    /**
+     * Configure the builder to materialise the stub. All values are created when the stub is built and the stub is an
+     * instance of a generated class which answers each method from a field, so reading a value has no proxy overhead.
+     * Types which recur within their own graph are returned as regular stubs. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = StubBuilder.aRandomInstanceOf(Person.class)
+     *                        .materialize()
+     *                        .build()
+     * </pre>
+     */
+    public StubBuilder<T> materialize() {
+        this.settings.setMaterialized(true);
+        this.definition = null;
+        return this;
+    }
+
     /**
      * Build the configured instance. For example
      * </p>
@@ -196,7 +335,34 @@ public class StubBuilder<T> {
      * </pre>
      */
     public T build() {
-        return this.factory.createStub(this.definition);
+        return this.factory.createStub(getDefinition());
+    }
+
+    /**
+     * Return an immutable {@link StubTemplate} of the current configuration. The template can be shared between
+     * threads and is unaffected by any later changes to this builder. For example
+     * </p>
+     *
+     * <pre>
+     * StubTemplate&lt;Person&gt; people = StubBuilder.aRandomStubOf(Person.class)
+     *                        .collectionSizeOf(5)
+     *                        .freeze();
+     * Person aPerson = people.build();
+     * </pre>
+     */
+    public StubTemplate<T> freeze() {
+        return new StubTemplate<>(new StubDefinition<>(this.type, this.settings), this.factory.copy());
+    }
+
+    /**
+     * Return the definition of the stub for the current configuration. The definition is reused across builds until
+     * the configuration changes so the definitions of the values it returns are only resolved once.
+     */
+    private StubDefinition<T> getDefinition() {
+        if (this.definition == null) {
+            this.definition = new StubDefinition<>(this.type, this.settings);
+        }
+        return this.definition;
     }
 
     private <X> List<ValueFactory<X>> createInstanceOfFactoriesForTypes(final Class<? extends X>... subtypes) {
@@ -2,74 +2,123 @@ package org.exparity.stub.stub;
 
 import static org.exparity.stub.random.RandomBuilder.aRandomInteger;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.exparity.stub.core.ValueFactory;
 
 /**
- * Encapsulate the definition of the stub to be created by the {@link StubFactory}
+ * Encapsulate the definition of the stub to be created by the {@link StubFactory}. A definition is immutable and
+ * shares the configuration of its parent so nested definitions can be created without copying. The definitions of
+ * the values returned by a stub are cached in a map shared by every definition in the tree so the type variables of
+ * each method are only resolved once however many stubs share the definition. Definitions of a type without unbound
+ * type variables are keyed by the type and method so a recursive type, for example a person returning their manager,
+ * reuses the same definitions at every depth and the cache is bounded by the number of types and methods in the graph.
  *
  * @author Stewart Bissett
  */
 class StubDefinition<T> {
 
-    private final Map<String, Type> typeParameters = new HashMap<>();
+    private static final TypeVariable<?>[] NO_TYPE_VARIABLES = new TypeVariable<?>[0];
+    private static final Type[] NO_TYPE_ARGUMENTS = new Type[0];
+
     private final Type type;
-    private final Map<Class<?>, ValueFactory<?>> overrides = new HashMap<>();
-    private int collectionSizeMin = 1, collectionSizeMax = 5;
+    private final StubDefinition<?> parent;
+    private final StubSettings settings;
+    private final TypeVariable<?>[] typeVariables;
+    private final Type[] typeArguments;
+    private final Class<T> actualType;
+    private final ConcurrentMap<ChildKey, StubDefinition<?>> children;
+    private final Object childOwner;
+
+    private StubDefinition(final Type type, final StubDefinition<?> parent) {
+        this.type = resolve(type, parent);
+        this.parent = parent;
+        this.settings = parent.settings;
+        this.children = parent.children;
+        this.childOwner = isClosed(this.type) ? this.type : this;
+        this.typeVariables = getTypeVariables(this.type);
+        this.typeArguments = getTypeArguments(this.type);
+        this.actualType = getActualType(this.type);
+    }
 
-    public StubDefinition(final Type type, final StubDefinition<?> parent) {
+    public StubDefinition(final Type type, final StubSettings settings) {
         this.type = type;
-        this.typeParameters.putAll(parent.typeParameters);
-        this.typeParameters.putAll(getTypeArguments(type));
-        this.overrides.putAll(parent.overrides);
-        this.collectionSizeMin = parent.collectionSizeMin;
-        this.collectionSizeMax = parent.collectionSizeMax;
+        this.parent = null;
+        this.settings = settings.copy();
+        this.children = new ConcurrentHashMap<>();
+        this.childOwner = isClosed(type) ? type : this;
+        this.typeVariables = getTypeVariables(type);
+        this.typeArguments = getTypeArguments(type);
+        this.actualType = getActualType(type);
     }
 
     public StubDefinition(final Type type) {
-        this(type, getTypeArguments(type));
+        this(type, new StubSettings());
     }
 
-    public StubDefinition(final Class<?> type) {
-        this(type, getTypeArguments(type));
+    /**
+     * Return the definition of the value returned by the method of a stub of this definition
+     */
+    @SuppressWarnings("unchecked")
+    public <E> StubDefinition<E> getReturnDefinition(final Method method) {
+        return (StubDefinition<E>) this.children.computeIfAbsent(new ChildKey(this.childOwner, method),
+                k -> new StubDefinition<>(method.getGenericReturnType(), this));
     }
 
-    private StubDefinition(final Type type, final Map<String, Type> typeParameters) {
-        this.typeParameters.putAll(typeParameters);
-        this.type = type;
+    /**
+     * Return the definition of a value nested within a value of this definition, for example the elements of a
+     * collection, or the key or value types of a map.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> StubDefinition<E> getNestedDefinition(final Type type) {
+        return (StubDefinition<E>) this.children.computeIfAbsent(new ChildKey(this.childOwner, type),
+                k -> new StubDefinition<>(type, this));
+    }
+
+    public StubSettings getSettings() {
+        return this.settings;
     }
 
     public boolean isFinal() {
-        return Modifier.isFinal(getActualType().getModifiers());
+        return Modifier.isFinal(this.actualType.getModifiers());
     }
 
     public Class<T> getActualType() {
-        return getActualType(this.type);
+        return this.actualType;
     }
 
     public Type getRawType() {
         return this.type;
     }
 
-    public void setCollectionSizeRange(final int min, final int max) {
-        this.collectionSizeMin = min;
-        this.collectionSizeMax = max;
+    /**
+     * Return true if the stub should be materialised into a field-backed instance rather than a proxy. Types which
+     * recur within their own graph are never materialised so the graph remains finite.
+     */
+    public boolean isMaterialized() {
+        return this.settings.isMaterialized() && !isRecursive();
     }
 
-    public <O> void addOverride(final Class<O> type, final ValueFactory<O> factory) {
-        this.overrides.put(type, factory);
+    private boolean isRecursive() {
+        for (StubDefinition<?> ancestor = this.parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor.actualType == this.actualType) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @SuppressWarnings("unchecked")
-    public Class<T> getActualType(final Type type) {
+    private Class<T> getActualType(final Type type) {
         if (type instanceof Class) {
             return (Class<T>) type;
         } else if (type instanceof ParameterizedType) {
@@ -81,50 +130,135 @@ class StubDefinition<T> {
         }
     }
 
+    /**
+     * Return the type bound to the type variable by this definition or, if not bound here, by its closest ancestor
+     */
     public Type getTypeByParameter(final String typeVariable) {
-        Type type = this.typeParameters.get(typeVariable);
-        if (type != null) {
-            return type;
+        for (StubDefinition<?> definition = this; definition != null; definition = definition.parent) {
+            int index = definition.indexOf(typeVariable);
+            if (index >= 0) {
+                return definition.typeArguments[index];
+            }
+        }
+        throw new IllegalArgumentException("Unknown type variable '" + typeVariable + "' in '" + this.type + "'");
+    }
+
+    /**
+     * Resolve a type variable to the type bound to it by the closest definition in scope. The binding may itself be a
+     * type variable, in which case it is resolved against the ancestors of the definition which bound it.
+     */
+    private static Type resolve(final Type type, final StubDefinition<?> scope) {
+        Type resolved = type;
+        StubDefinition<?> definition = scope;
+        while (resolved instanceof TypeVariable<?> && definition != null) {
+            String name = ((TypeVariable<?>) resolved).getName();
+            StubDefinition<?> binding = definition;
+            while (binding != null && binding.indexOf(name) < 0) {
+                binding = binding.parent;
+            }
+            if (binding == null) {
+                break;
+            }
+            resolved = binding.typeArguments[binding.indexOf(name)];
+            definition = binding.parent;
+        }
+        return resolved;
+    }
+
+    private int indexOf(final String typeVariable) {
+        for (int i = 0; i < this.typeVariables.length; ++i) {
+            if (this.typeVariables[i].getName().equals(typeVariable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return true if the type has no type variables, so the definitions of its values do not depend on the definitions
+     * it is nested in
+     */
+    private static boolean isClosed(final Type type) {
+        if (type instanceof Class) {
+            return true;
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            return (parameterized.getOwnerType() == null || isClosed(parameterized.getOwnerType()))
+                    && Arrays.stream(parameterized.getActualTypeArguments()).allMatch(StubDefinition::isClosed);
         } else {
-            throw new IllegalArgumentException("Unknown type variable '" + typeVariable + "' in '" + this.type + "'");
+            return false;
         }
     }
 
-    private static Map<String, Type> getTypeArguments(final Type type) {
+    private static TypeVariable<?>[] getTypeVariables(final Type type) {
         if (type instanceof ParameterizedType) {
-            return getTypeArguments((ParameterizedType) type);
+            return ((Class<?>) ((ParameterizedType) type).getRawType()).getTypeParameters();
         } else {
-            return new HashMap<>();
+            return NO_TYPE_VARIABLES;
         }
     }
 
-    private static Map<String, Type> getTypeArguments(final ParameterizedType genericType) {
-        ParameterizedType type = genericType;
-        Type[] typeArguments = type.getActualTypeArguments();
-        TypeVariable<?>[] typeKeys = ((Class<?>) type.getRawType()).getTypeParameters();
-        Map<String, Type> parameterizedTypes = new HashMap<>();
-        for (int i = 0; i < typeKeys.length; ++i) {
-            parameterizedTypes.put(typeKeys[i].getName(), typeArguments[i]);
+    private static Type[] getTypeArguments(final Type type) {
+        if (type instanceof ParameterizedType) {
+            return ((ParameterizedType) type).getActualTypeArguments();
+        } else {
+            return NO_TYPE_ARGUMENTS;
         }
-        return parameterizedTypes;
     }
 
     public String describe() {
-        return getActualType().getName();
+        return this.actualType.getName();
     }
 
     public int aRandomCollectionSize() {
-        return (this.collectionSizeMin == this.collectionSizeMax) ? this.collectionSizeMin : aRandomInteger(
-                this.collectionSizeMin, this.collectionSizeMax);
+        int min = this.settings.getCollectionSizeMin(), max = this.settings.getCollectionSizeMax();
+        return (min == max) ? min : aRandomInteger(min, max);
     }
 
-    public Optional<ValueFactory<?>> getOverrideValueFactoryByType(final Class<?> type) {
-        for (Entry<Class<?>, ValueFactory<?>> keyedFactory : this.overrides.entrySet()) {
-            if (type.isAssignableFrom(keyedFactory.getKey())) {
-                return Optional.of(keyedFactory.getValue());
+    /**
+     * Return true if lists, collections, and maps should be returned as views which create their elements on access
+     */
+    public boolean isLazyCollections() {
+        return this.settings.isLazyCollections();
+    }
+
+    public int getLazyCollectionCacheSize() {
+        return this.settings.getLazyCollectionCacheSize();
+    }
+
+    public <E> Optional<ValueFactory<E>> getOverrideValueFactoryByType(final Class<E> type) {
+        return this.settings.getOverrides().resolve(type);
+    }
+
+    /**
+     * The key of the definition of a value of a method or nested type. The owner is the type of the definition when it
+     * is closed, so every definition of that type shares its children, or else the definition itself.
+     */
+    private static class ChildKey {
+
+        private final Object owner;
+        private final Object member;
+
+        private ChildKey(final Object owner, final Object member) {
+            this.owner = owner;
+            this.member = member;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (!(obj instanceof ChildKey)) {
+                return false;
             }
+            ChildKey other = (ChildKey) obj;
+            return this.owner.equals(other.owner) && this.member.equals(other.member);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.owner, this.member);
         }
-        return Optional.empty();
     }
 
 }
@@ -1,15 +1,16 @@
 package org.exparity.stub.stub;
 
-import org.objenesis.Objenesis;
-import org.objenesis.ObjenesisStd;
-import org.objenesis.instantiator.ObjectInstantiator;
+import static java.lang.System.identityHashCode;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.exparity.stub.core.Instantiators;
+import org.exparity.stub.core.StubMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.sf.cglib.proxy.Callback;
-import net.sf.cglib.proxy.Enhancer;
-import net.sf.cglib.proxy.MethodInterceptor;
-
 /**
  * @author Stewart Bissett
  */
@@ -17,44 +18,140 @@ class StubFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(StubFactory.class);
 
+    /**
+     * Materialised types keyed by the raw type they stub. A {@link ClassValue} ties each materialised type to the
+     * lifetime of the type it was generated for so the cache never pins a test class loader.
+     */
+    private static final ClassValue<MaterializedType> MATERIALIZED_TYPES = new ClassValue<MaterializedType>() {
+
+        @Override
+        protected MaterializedType computeValue(final Class<?> rawType) {
+            long start = StubMetrics.start();
+            MaterializedType materializedType = new MaterializedType(rawType);
+            StubMetrics.proxyClassGenerated(rawType, start);
+            LOG.debug("Generate Materialized Type [{}] for [{}]",
+                    materializedType.getMaterializedType().getName(),
+                    rawType.getName());
+            return materializedType;
+        }
+    };
+
+    private static final StubProxyEngine PRECOMPILED = new PrecompiledStubProxyEngine();
+
+    /**
+     * The graphs of the root stubs built with a budget. Stubs use identity for equals and hashCode so a stub is only
+     * held weakly until it is no longer referenced.
+     */
+    private static final Map<Object, StubGraph> GRAPHS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private StubProxyEngine engine;
+
+    /**
+     * Set the engine used to create proxies. If no engine is set then {@link StubProxyEngines#getDefault()} is used.
+     * Types the engine cannot proxy are created using {@link StubProxyEngines#cglib()}. Types with a stub class
+     * generated at compile time, see {@link GenerateStub}, always use the generated class.
+     */
+    public void setEngine(final StubProxyEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Return a copy of this factory which creates stubs with the same engine
+     */
+    public StubFactory copy() {
+        StubFactory copy = new StubFactory();
+        copy.engine = this.engine;
+        return copy;
+    }
+
+    /**
+     * Prepare the proxy or materialised class for the definition so the first stub created has no additional cost
+     */
+    public void prepare(final StubDefinition<?> definition) {
+        Class<?> type = definition.getActualType();
+        if (definition.isFinal()) {
+            throw new FinalClassException(type);
+        } else if (definition.isMaterialized()) {
+            MATERIALIZED_TYPES.get(type);
+        } else if (PRECOMPILED.canProxy(type)) {
+            PRECOMPILED.prepare(type);
+        } else if (getEngine().canProxy(type)) {
+            getEngine().prepare(type);
+        } else {
+            StubProxyEngines.cglib().prepare(type);
+        }
+    }
+
+    private StubProxyEngine getEngine() {
+        return this.engine != null ? this.engine : StubProxyEngines.getDefault();
+    }
+
+    /**
+     * Return the number of stubs and collections created so far in the graph of a stub built with a budget
+     */
+    public static int getObjectCount(final Object stub) {
+        StubGraph graph = GRAPHS.get(stub);
+        if (graph == null) {
+            throw new StubBuilderException("Object count is only available for stubs built with a maximum depth or "
+                    + "maximum number of objects");
+        }
+        return graph.getObjectCount();
+    }
+
+    /**
+     * Create the root stub of a new stub graph
+     */
     public <T> T createStub(final StubDefinition<T> definition) {
+        long start = StubMetrics.start();
+        StubGraph graph = StubGraph.forSettings(definition.getSettings());
+        graph.tryCreate(0);
+        T stub = createStub(definition, graph, 0);
+        StubMetrics.objectCreated(definition.getActualType(), start);
+        if (graph.isBounded()) {
+            GRAPHS.put(stub, graph);
+        }
+        return stub;
+    }
+
+    /**
+     * Create a stub at the given depth within an existing stub graph
+     */
+    public <T> T createStub(final StubDefinition<T> definition, final StubGraph graph, final int depth) {
         if (definition.isFinal()) {
             throw new FinalClassException(definition.getActualType());
+        } else if (definition.isMaterialized()) {
+            T instance = createMaterialized(definition, graph, depth);
+            LOG.debug("Create Materialized [{}] for [{}]", identityHashCode(instance), definition.describe());
+            return instance;
         } else {
-            T proxy = createProxy(new Stub<>(definition, this));
+            T proxy = createProxy(new Stub<>(definition, this, graph, depth));
             LOG.debug("Create Proxy [{}] for [{}]", proxy, definition.describe());
             return proxy;
         }
     }
 
     private <T> T createProxy(final Stub<T> stub) {
-        return createProxy(stub.getRawType(), stub);
-    }
-
-    public <T> T createProxy(final Class<T> rawType, final MethodInterceptor callback) {
-        return createProxyInstance(createProxyType(rawType, callback));
-    }
-
-    private <T> T createProxyInstance(final Class<T> proxyType) {
-        Objenesis instantiatorFactory = new ObjenesisStd();
-        ObjectInstantiator<T> instanceFactory = instantiatorFactory.getInstantiatorOf(proxyType);
-        T instance = instanceFactory.newInstance();
-        LOG.debug("Produce Proxy Instance [{}] for [{}]", System.identityHashCode(instance), proxyType.getName());
-        return instance;
+        if (PRECOMPILED.canProxy(stub.getRawType())) {
+            return PRECOMPILED.createProxy(stub.getRawType(), stub);
+        }
+        StubProxyEngine engine = getEngine();
+        if (!engine.canProxy(stub.getRawType())) {
+            LOG.debug("Fallback to [{}] for [{}]. Not supported by [{}]",
+                    new Object[] { StubProxyEngines.cglib(), stub, engine });
+            engine = StubProxyEngines.cglib();
+        }
+        return engine.createProxy(stub.getRawType(), stub);
     }
 
     @SuppressWarnings("unchecked")
-    private <T> Class<T> createProxyType(final Class<T> rawType, final MethodInterceptor callback) {
-        Enhancer classFactory = new Enhancer();
-        if (rawType.isInterface()) {
-            classFactory.setInterfaces(new Class[] { rawType });
-        } else {
-            classFactory.setSuperclass(rawType);
+    private <T> T createMaterialized(final StubDefinition<T> definition, final StubGraph graph, final int depth) {
+        MaterializedType materializedType = MATERIALIZED_TYPES.get(definition.getActualType());
+        T instance = (T) Instantiators.instantiatorOf(materializedType.getMaterializedType()).createValue();
+        Stub<T> stub = new Stub<>(definition, this, graph, depth);
+        for (int i = 0; i < materializedType.getValueMethodCount(); ++i) {
+            materializedType.setValue(instance, i, stub.createValue(materializedType.getValueMethod(i)));
         }
-        classFactory.setCallbackType(callback.getClass());
-        Class<T> proxyType = classFactory.createClass();
-        Enhancer.registerCallbacks(proxyType, new Callback[] { callback });
-        return proxyType;
+        return instance;
     }
 
 }
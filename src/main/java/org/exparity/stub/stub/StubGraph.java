@@ -0,0 +1,63 @@
+package org.exparity.stub.stub;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The budget for a single stub graph, that is a stub built by a {@link StubBuilder} together with every stub and
+ * collection it returns. Stubs and collections are only created while the graph is within its maximum depth and
+ * maximum number of objects. Leaf values, such as strings, numbers, and enums, are always created and are not counted.
+ *
+ * @author Stewart Bissett
+ */
+class StubGraph {
+
+    /**
+     * The graph used when no budget is configured. Objects are not counted
+     */
+    static final StubGraph UNBOUNDED = new StubGraph(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final int maxDepth, maxObjects;
+    private final AtomicInteger objects = new AtomicInteger();
+
+    private StubGraph(final int maxDepth, final int maxObjects) {
+        this.maxDepth = maxDepth;
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * Return the graph for a new stub built with the settings
+     */
+    static StubGraph forSettings(final StubSettings settings) {
+        return settings.isBounded() ? new StubGraph(settings.getMaxDepth(), settings.getMaxObjects()) : UNBOUNDED;
+    }
+
+    public boolean isBounded() {
+        return this != UNBOUNDED;
+    }
+
+    /**
+     * Return true, and count the object, if an object can be created at the depth within the budget. The root stub has
+     * a depth of zero, the values it returns have a depth of one, and the elements of a collection have the same depth
+     * as the collection.
+     */
+    public boolean tryCreate(final int depth) {
+        if (!isBounded()) {
+            return true;
+        } else if (depth > this.maxDepth) {
+            return false;
+        }
+        for (int count = this.objects.get(); count < this.maxObjects; count = this.objects.get()) {
+            if (this.objects.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the number of stubs and collections created in the graph so far
+     */
+    public int getObjectCount() {
+        return this.objects.get();
+    }
+}
@@ -0,0 +1,56 @@
+package org.exparity.stub.stub;
+
+import java.lang.reflect.Method;
+
+/**
+ * Interface to be implemented by classes which can generate the proxies used by the {@link StubBuilder}. See
+ * {@link StubProxyEngines} for the engines available and for selecting the engine to use by default.
+ * <p/>
+ * A proxy created by an engine must answer each stubbed method with the value produced by the
+ * {@link MethodValueFactory} the first time the method is called and the same value on subsequent calls. equals and
+ * hashCode must use the identity of the proxy.
+ *
+ * @author Stewart Bissett
+ */
+public interface StubProxyEngine {
+
+    /**
+     * Interface to be implemented by classes which provide the values a stub returns for its methods
+     */
+    @FunctionalInterface
+    public static interface MethodValueFactory {
+
+        /**
+         * Create the value to be returned by the method.
+         *
+         * @param method the stubbed method
+         * @return the value to return from the method
+         */
+        public Object createValue(final Method method);
+    }
+
+    /**
+     * Return true if this engine can create a proxy of the given type.
+     *
+     * @param type the type to proxy
+     * @return true if this engine can create a proxy of the given type
+     */
+    public boolean canProxy(final Class<?> type);
+
+    /**
+     * Create a proxy of the given type which answers stubbed methods with values from the supplied factory.
+     *
+     * @param type the type to proxy
+     * @param values the factory to create the value returned by each stubbed method
+     * @return a proxy of the given type
+     */
+    public <T> T createProxy(final Class<T> type, final MethodValueFactory values);
+
+    /**
+     * Prepare to create proxies of the given type, for example by generating the proxy class, so the first proxy
+     * created has no additional cost. The default implementation does nothing.
+     *
+     * @param type the type to proxy
+     */
+    public default void prepare(final Class<?> type) {}
+}
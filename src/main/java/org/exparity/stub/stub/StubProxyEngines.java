@@ -0,0 +1,96 @@
+package org.exparity.stub.stub;
+
+/**
+ * Static factory for the {@link StubProxyEngine} instances which can be used by the {@link StubBuilder}, and for
+ * selecting the engine used when a {@link StubBuilder} is not configured with one.
+ * <p/>
+ * The default engine is {@link #cglib()} rather than {@link #byType()}. Stubs of interfaces have always been cglib
+ * subclasses, so code which recognises a stub as an instance of {@link net.sf.cglib.proxy.Factory}, or by its class
+ * name, keeps working. A cglib stub also calls each stubbed method's own callback directly, whereas a JDK proxy passes
+ * every call through a single {@link java.lang.reflect.InvocationHandler} which looks the method up in its dispatch
+ * table. A JDK proxy is quicker to create but slower to call, as measured by the StubProxyEngineBenchmark, so choosing
+ * JDK proxies by type does not make stubs cheaper to use. Use {@link #setDefault(StubProxyEngine)} to select engines
+ * by type for every builder.
+ *
+ * @author Stewart Bissett
+ */
+public abstract class StubProxyEngines {
+
+    private static final StubProxyEngine CGLIB = new CglibStubProxyEngine();
+    private static final StubProxyEngine JDK_PROXY = new JdkStubProxyEngine();
+    private static final StubProxyEngine BY_TYPE = new StubProxyEngine() {
+
+        @Override
+        public boolean canProxy(final Class<?> type) {
+            return CGLIB.canProxy(type);
+        }
+
+        @Override
+        public <T> T createProxy(final Class<T> type, final MethodValueFactory values) {
+            return JDK_PROXY.canProxy(type) ? JDK_PROXY.createProxy(type, values) : CGLIB.createProxy(type, values);
+        }
+
+        @Override
+        public void prepare(final Class<?> type) {
+            if (JDK_PROXY.canProxy(type)) {
+                JDK_PROXY.prepare(type);
+            } else {
+                CGLIB.prepare(type);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ByTypeStubProxyEngine";
+        }
+    };
+
+    private static volatile StubProxyEngine defaultEngine = CGLIB;
+
+    /**
+     * Return a {@link StubProxyEngine} which generates cglib subclasses. It can proxy interfaces and non-final classes.
+     * This is the default engine.
+     */
+    public static StubProxyEngine cglib() {
+        return CGLIB;
+    }
+
+    /**
+     * Return a {@link StubProxyEngine} which uses {@link java.lang.reflect.Proxy}. It can only proxy interfaces.
+     */
+    public static StubProxyEngine jdkProxy() {
+        return JDK_PROXY;
+    }
+
+    /**
+     * Return a {@link StubProxyEngine} which uses the {@link #jdkProxy()} engine for interfaces and the
+     * {@link #cglib()} engine for classes.
+     */
+    public static StubProxyEngine byType() {
+        return BY_TYPE;
+    }
+
+    /**
+     * Return the engine used by any {@link StubBuilder} which has not been configured with an engine.
+     */
+    public static StubProxyEngine getDefault() {
+        return defaultEngine;
+    }
+
+    /**
+     * Set the engine to use for any {@link StubBuilder} which has not been configured with an engine. For example
+     * </p>
+     *
+     * <pre>
+     * StubProxyEngines.setDefault(StubProxyEngines.byType());
+     * </pre>
+     *
+     * @param engine the engine to use by default
+     */
+    public static void setDefault(final StubProxyEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Default StubProxyEngine cannot be null");
+        }
+        defaultEngine = engine;
+    }
+}
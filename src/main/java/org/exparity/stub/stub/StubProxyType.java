@@ -0,0 +1,119 @@
+package org.exparity.stub.stub;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.FixedValue;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.NoOp;
+
+/**
+ * The proxy class generated for a stubbed type together with its dispatch table. The dispatch table is computed once
+ * per proxy class and routes equals and hashCode to dedicated callbacks, leaves pass-through methods such as finalize
+ * un-overridden, and gives every other method its own callback slot so a repeated call is answered without any lookup.
+ *
+ * @author Stewart Bissett
+ */
+class StubProxyType implements CallbackFilter {
+
+    static final int EQUALS = 0, HASHCODE = 1, PASSTHROUGH = 2, FIRST_VALUE = 3;
+
+    private final Map<Signature, Integer> slots = new HashMap<>();
+    private final List<Method> methods = new ArrayList<>();
+    private final Class<?> proxyType;
+
+    StubProxyType(final Class<?> rawType) {
+        for (Method method : getMethods(rawType)) {
+            Signature signature = ReflectUtils.getSignature(method);
+            if (dispatchOf(method) == FIRST_VALUE && !this.slots.containsKey(signature)) {
+                this.slots.put(signature, FIRST_VALUE + this.methods.size());
+                this.methods.add(method);
+            }
+        }
+        this.proxyType = createProxyType(rawType);
+    }
+
+    public Class<?> getProxyType() {
+        return this.proxyType;
+    }
+
+    /**
+     * Return the number of methods which are answered with a stubbed value
+     */
+    public int getValueMethodCount() {
+        return this.methods.size();
+    }
+
+    /**
+     * Return the method answered by the value callback at the given position
+     */
+    public Method getValueMethod(final int position) {
+        return this.methods.get(position);
+    }
+
+    @Override
+    public int accept(final Method method) {
+        int dispatch = dispatchOf(method);
+        if (dispatch == FIRST_VALUE) {
+            Integer slot = this.slots.get(ReflectUtils.getSignature(method));
+            return slot != null ? slot : PASSTHROUGH;
+        } else {
+            return dispatch;
+        }
+    }
+
+    private Class<?>[] getCallbackTypes() {
+        Class<?>[] callbackTypes = new Class<?>[FIRST_VALUE + this.methods.size()];
+        callbackTypes[EQUALS] = MethodInterceptor.class;
+        callbackTypes[HASHCODE] = MethodInterceptor.class;
+        callbackTypes[PASSTHROUGH] = NoOp.class;
+        Arrays.fill(callbackTypes, FIRST_VALUE, callbackTypes.length, FixedValue.class);
+        return callbackTypes;
+    }
+
+    private Class<?> createProxyType(final Class<?> rawType) {
+        Enhancer classFactory = new Enhancer();
+        if (rawType.isInterface()) {
+            classFactory.setInterfaces(new Class<?>[] { rawType });
+        } else {
+            classFactory.setSuperclass(rawType);
+        }
+        classFactory.setCallbackFilter(this);
+        classFactory.setCallbackTypes(getCallbackTypes());
+        classFactory.setUseCache(false);
+        return classFactory.createClass();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Method> getMethods(final Class<?> rawType) {
+        List<Method> methods = new ArrayList<>();
+        if (rawType.isInterface()) {
+            Enhancer.getMethods(Object.class, new Class<?>[] { rawType }, methods);
+        } else {
+            Enhancer.getMethods(rawType, null, methods);
+        }
+        return methods;
+    }
+
+    private static int dispatchOf(final Method method) {
+        switch (method.getName()) {
+        case "equals":
+            return method.getParameterCount() == 1 ? EQUALS : FIRST_VALUE;
+        case "hashCode":
+            return method.getParameterCount() == 0 ? HASHCODE : FIRST_VALUE;
+        case "iterator":
+        case "finalize":
+            return PASSTHROUGH;
+        default:
+            return FIRST_VALUE;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.exparity.stub.stub;
+
+import org.exparity.stub.core.ValueFactory;
+import org.exparity.stub.core.ValueFactoryResolver;
+
+/**
+ * The configuration of a {@link StubBuilder}. The {@link StubBuilder} changes its own settings and takes a copy for
+ * each {@link StubDefinition} it creates so the settings of a definition never change.
+ *
+ * @author Stewart Bissett
+ */
+class StubSettings {
+
+    private ValueFactoryResolver overrides = new ValueFactoryResolver();
+    private int collectionSizeMin = 1, collectionSizeMax = 5;
+    private boolean materialized;
+    private boolean lazyCollections;
+    private int lazyCollectionCacheSize;
+    private int maxDepth = Integer.MAX_VALUE, maxObjects = Integer.MAX_VALUE;
+
+    public StubSettings copy() {
+        StubSettings copy = new StubSettings();
+        copy.overrides = this.overrides.copy();
+        copy.collectionSizeMin = this.collectionSizeMin;
+        copy.collectionSizeMax = this.collectionSizeMax;
+        copy.materialized = this.materialized;
+        copy.lazyCollections = this.lazyCollections;
+        copy.lazyCollectionCacheSize = this.lazyCollectionCacheSize;
+        copy.maxDepth = this.maxDepth;
+        copy.maxObjects = this.maxObjects;
+        return copy;
+    }
+
+    public <V> void addOverride(final Class<V> type, final ValueFactory<V> factory) {
+        this.overrides.register(type, factory);
+    }
+
+    public ValueFactoryResolver getOverrides() {
+        return this.overrides;
+    }
+
+    public void setCollectionSizeRange(final int min, final int max) {
+        this.collectionSizeMin = min;
+        this.collectionSizeMax = max;
+    }
+
+    public int getCollectionSizeMin() {
+        return this.collectionSizeMin;
+    }
+
+    public int getCollectionSizeMax() {
+        return this.collectionSizeMax;
+    }
+
+    public void setMaterialized(final boolean materialized) {
+        this.materialized = materialized;
+    }
+
+    public boolean isMaterialized() {
+        return this.materialized;
+    }
+
+    public void setLazyCollections(final boolean lazyCollections, final int cacheSize) {
+        this.lazyCollections = lazyCollections;
+        this.lazyCollectionCacheSize = cacheSize;
+    }
+
+    public boolean isLazyCollections() {
+        return this.lazyCollections;
+    }
+
+    public int getLazyCollectionCacheSize() {
+        return this.lazyCollectionCacheSize;
+    }
+
+    public void setMaxDepth(final int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public void setMaxObjects(final int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+
+    public int getMaxObjects() {
+        return this.maxObjects;
+    }
+
+    /**
+     * Return true if the size of a stub graph is limited by a maximum depth or number of objects
+     */
+    public boolean isBounded() {
+        return this.maxDepth != Integer.MAX_VALUE || this.maxObjects != Integer.MAX_VALUE;
+    }
+}
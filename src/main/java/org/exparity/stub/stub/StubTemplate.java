@@ -0,0 +1,72 @@
+package org.exparity.stub.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable template for creating stubs, returned by {@link StubBuilder#freeze()}. The configuration, the type
+ * factories, and the proxy class are resolved when the template is created so building a stub from a template only
+ * creates the stub itself. A template can be shared between threads and built from concurrently. For example
+ * </p>
+ *
+ * <pre>
+ * private static final StubTemplate&lt;Person&gt; PEOPLE = StubBuilder.aRandomStubOf(Person.class).freeze();
+ *
+ * &#064;Test
+ * public void canDoSomething() {
+ *     Person aPerson = PEOPLE.build();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Stewart Bissett
+ */
+public final class StubTemplate<T> {
+
+    private final StubDefinition<T> definition;
+    private final StubFactory factory;
+
+    StubTemplate(final StubDefinition<T> definition, final StubFactory factory) {
+        this.definition = definition;
+        this.factory = factory;
+        this.factory.prepare(definition);
+    }
+
+    /**
+     * Build a new stub from the template. For example
+     * </p>
+     *
+     * <pre>
+     * Person aPerson = template.build()
+     * </pre>
+     */
+    public T build() {
+        return this.factory.createStub(this.definition);
+    }
+
+    /**
+     * Build the given number of new stubs from the template. For example
+     * </p>
+     *
+     * <pre>
+     * List&lt;Person&gt; people = template.buildMany(10)
+     * </pre>
+     *
+     * @param count the number of stubs to build
+     */
+    public List<T> buildMany(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot build a negative number of stubs");
+        }
+        List<T> stubs = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            stubs.add(this.factory.createStub(this.definition));
+        }
+        return stubs;
+    }
+
+    @Override
+    public String toString() {
+        return "StubTemplate [" + this.definition.describe() + "]";
+    }
+}
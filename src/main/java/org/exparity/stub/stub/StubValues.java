@@ -0,0 +1,84 @@
+package org.exparity.stub.stub;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.exparity.stub.core.StubMetrics;
+import org.exparity.stub.stub.StubProxyEngine.MethodValueFactory;
+
+/**
+ * The values returned by a stub class generated at compile time. Each stubbed method of the generated class is given a
+ * slot and the value for the slot is created the first time the method is called. This class is used by the classes
+ * generated by the {@link org.exparity.stub.processor.StubProcessor} and is not intended to be used directly.
+ *
+ * @author Stewart Bissett
+ */
+public final class StubValues {
+
+    private static final Object NOT_CREATED = new Object();
+
+    /**
+     * Return the method of the stubbed type with the given name and parameter types. The method can be declared on the
+     * type or any of its super types, including {@link Object} for interfaces, and can be protected.
+     *
+     * @param type the stubbed type
+     * @param name the name of the method
+     * @param parameterTypes the parameter types of the method
+     * @return the method
+     */
+    public static Method methodOf(final Class<?> type, final String name, final Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            for (Class<?> declaringType = type; declaringType != null; declaringType = declaringType.getSuperclass()) {
+                try {
+                    return declaringType.getDeclaredMethod(name, parameterTypes);
+                } catch (NoSuchMethodException ignore) {
+                    // Check the next super type
+                }
+            }
+            if (type.isInterface()) {
+                return methodOf(Object.class, name, parameterTypes);
+            }
+            throw new StubBuilderException("Unable to find method '" + name + "' on '" + type.getName() + "'", e);
+        }
+    }
+
+    private final Class<?> type;
+    private final Method[] methods;
+    private final MethodValueFactory values;
+    private final AtomicReferenceArray<Object> slots;
+
+    public StubValues(final Class<?> type, final Method[] methods, final MethodValueFactory values) {
+        this.type = type;
+        this.methods = methods;
+        this.values = values;
+        this.slots = new AtomicReferenceArray<>(methods.length);
+        for (int i = 0; i < methods.length; ++i) {
+            this.slots.lazySet(i, NOT_CREATED);
+        }
+    }
+
+    /**
+     * Return the value for the method in the given slot, creating it if this is the first call to the method.
+     *
+     * @param slot the slot of the method
+     * @return the value to return from the method
+     */
+    public Object get(final int slot) {
+        Object value = this.slots.get(slot);
+        if (value == NOT_CREATED) {
+            synchronized (this) {
+                value = this.slots.get(slot);
+                if (value == NOT_CREATED) {
+                    StubMetrics.returnValue(this.type, false);
+                    value = this.values.createValue(this.methods[slot]);
+                    this.slots.set(slot, value);
+                    return value;
+                }
+            }
+        }
+        StubMetrics.returnValue(this.type, true);
+        return value;
+    }
+}
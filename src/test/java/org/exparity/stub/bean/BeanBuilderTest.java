@@ -4,12 +4,21 @@ import static org.exparity.beans.Bean.bean;
 import static org.exparity.stub.bean.BeanBuilder.aRandomInstanceOf;
 import static org.exparity.stub.bean.BeanBuilder.anEmptyInstanceOf;
 import static org.exparity.stub.bean.BeanBuilder.anInstanceOf;
+import static org.exparity.stub.core.ValueFactories.theValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.exparity.beans.Type;
 import org.exparity.beans.core.BeanProperty;
 import org.exparity.beans.core.BeanPropertyException;
 import org.exparity.beans.core.BeanVisitor;
@@ -18,15 +27,22 @@ import org.exparity.stub.core.ValueFactory;
 import org.exparity.stub.testutils.type.AllTypes;
 import org.exparity.stub.testutils.type.Car;
 import org.exparity.stub.testutils.type.Circle;
+import org.exparity.stub.testutils.type.ConstructorOnlyAllTypes;
+import org.exparity.stub.testutils.type.ConstructorOnlyNested;
 import org.exparity.stub.testutils.type.Employee;
 import org.exparity.stub.testutils.type.Engine;
+import org.exparity.stub.testutils.type.Garage;
+import org.exparity.stub.testutils.type.GroupedNames;
 import org.exparity.stub.testutils.type.Manager;
 import org.exparity.stub.testutils.type.NoDefaultConstructor;
 import org.exparity.stub.testutils.type.Person;
+import org.exparity.stub.testutils.type.ProtectedConstructor;
 import org.exparity.stub.testutils.type.Shape;
+import org.exparity.stub.testutils.type.ShapeCatalogue;
 import org.exparity.stub.testutils.type.ShapeSorter;
 import org.exparity.stub.testutils.type.Square;
 import org.exparity.stub.testutils.type.Wheel;
+import org.exparity.stub.testutils.type.WideBean;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
@@ -125,6 +141,16 @@ public class BeanBuilderTest {
 		aRandomInstanceOf(Car.class).with("capacity", 1234L).build();
 	}
 
+	@Test(expected = BeanPropertyException.class)
+	public void canFailToSetAPrimitivePropertyToNull() {
+		new PropertyAccessor(Type.typeProperty(AllTypes.class, "integerValue")).setValue(new AllTypes(), null);
+	}
+
+	@Test(expected = BeanPropertyException.class)
+	public void canFailToSetAPrimitiveFieldToNull() throws Exception {
+		new PropertyAccessor(AllTypes.class.getDeclaredField("integerValue")).setValue(new AllTypes(), null);
+	}
+
 	@Test
 	public void canSetAnOverridePropertyFactory() {
 		BigDecimal overrideValue = new BigDecimal("4.0");
@@ -180,6 +206,17 @@ public class BeanBuilderTest {
 		assertThat(person.getSiblings().get(0).getSiblings(), nullValue());
 	}
 
+	@Test
+	public void canRandomlyFillAGraphOfSubtypesWithoutOverflow() {
+		Employee employee = aRandomInstanceOf(Employee.class).subtype(Person.class, Manager.class)
+				.collectionSizeOf(1)
+				.build();
+		assertThat(employee.getManager(), instanceOf(Manager.class));
+		assertThat(((Manager) employee.getManager()).getEmployees(), nullValue());
+		assertThat(employee.getSiblings(), hasSize(1));
+		assertThat(employee.getSiblings().get(0).getSiblings(), nullValue());
+	}
+
 	@Test
 	public void canSetAnOverridePropertyByPath() {
 		BigDecimal overrideValue = new BigDecimal("4.0");
@@ -208,6 +245,27 @@ public class BeanBuilderTest {
 		assertThat(car.getWheels().get(1).getDiameter(), equalTo(overrideDiameter));
 	}
 
+	@Test
+	public void canSetPathRulesForIndexedAndUnindexedPaths() {
+		Car car = aRandomInstanceOf(Car.class).collectionSizeOf(3)
+				.collectionSizeForPathOf("car.wheels.nuts", 2)
+				.collectionSizeForPathOf("car.wheels[0].nuts", 4)
+				.excludePath("car.wheels[2].diameter")
+				.build();
+		assertThat(car.getWheels().get(0).getNuts(), hasSize(4));
+		assertThat(car.getWheels().get(1).getNuts(), hasSize(2));
+		assertThat(car.getWheels().get(1).getDiameter(), notNullValue());
+		assertThat(car.getWheels().get(2).getDiameter(), nullValue());
+	}
+
+	@Test
+	public void canIgnoreTheChildrenOfAnAssignedPath() {
+		Engine engine = new Engine();
+		Car car = aRandomInstanceOf(Car.class).path("car.engine", engine).build();
+		assertThat(car.getEngine(), sameInstance(engine));
+		assertThat(car.getEngine().getCapacity(), nullValue());
+	}
+
 	@Test
 	public void canSetAnPropertyByPathShortForm() {
 		BigDecimal overrideValue = new BigDecimal("4.0");
@@ -259,6 +317,288 @@ public class BeanBuilderTest {
 		assertThat(shapeSorter.getShape(), anyOf(instanceOf(Square.class), instanceOf(Circle.class)));
 	}
 
+	@Test
+	public void canUseTheMostSpecificFactoryForAType() {
+		Circle circle = new Circle();
+		ShapeSorter shapeSorter = aRandomInstanceOf(ShapeSorter.class).with(Shape.class, theValue(circle))
+				.with(Square.class, theValue(new Square()))
+				.build();
+		assertThat(shapeSorter.getShape(), sameInstance(circle));
+		shapeSorter = aRandomInstanceOf(ShapeSorter.class).with(Square.class, theValue(new Square()))
+				.with(Shape.class, theValue(circle))
+				.build();
+		assertThat(shapeSorter.getShape(), sameInstance(circle));
+	}
+
+	@Test
+	public void canReuseTheBuildPlanForATypeAcrossBuilders() {
+		Car first = aRandomInstanceOf(Car.class).collectionSizeOf(1).build();
+		Car second = aRandomInstanceOf(Car.class, "vehicle").collectionSizeOf(2)
+				.path("vehicle.engine.capacity", BigDecimal.ONE)
+				.build();
+		Car empty = anEmptyInstanceOf(Car.class).build();
+		assertThat(first.getWheels(), hasSize(1));
+		assertThat(first.getEngine().getCapacity(), notNullValue());
+		assertThat(second.getWheels(), hasSize(2));
+		assertThat(second.getEngine().getCapacity(), equalTo(BigDecimal.ONE));
+		assertThat(empty.getEngine().getCapacity(), nullValue());
+	}
+
+	@Test
+	public void canPopulateABeanWithManyProperties() {
+		WideBean bean = aRandomInstanceOf(WideBean.class).with("count20", 20).build();
+		assertThat(bean.getName01(), notNullValue());
+		assertThat(bean.getAmount20(), notNullValue());
+		assertThat(bean.getCount20(), equalTo(20));
+	}
+
+	@Test
+	public void canNotifyAListenerOfBuildEvents() {
+		CountingBuildListener counts = BuildListeners.counting();
+		Person person = aRandomInstanceOf(Person.class).collectionSizeOf(1)
+				.excludeProperty("surname")
+				.listener(BuildListeners.jfr())
+				.listener(counts)
+				.build();
+		assertThat(person.getSurname(), nullValue());
+		assertThat(counts.getValuesCreated(), greaterThan(0L));
+		assertThat(counts.getPropertiesAssigned(), greaterThan(0L));
+		assertThat(counts.getPropertiesSkipped(), greaterThanOrEqualTo(2L));
+		assertThat(counts.getRecursionsCut(), greaterThan(0L));
+	}
+
+	@Test
+	public void canBuildManyInstances() {
+		List<Car> cars = aRandomInstanceOf(Car.class).path("car.engine.capacity", BigDecimal.ONE)
+				.collectionSizeOf(2)
+				.buildMany(50);
+		assertThat(cars, hasSize(50));
+		assertThat(cars.get(0), not(sameInstance(cars.get(49))));
+		for (Car car : cars) {
+			assertThat(car.getEngine().getCapacity(), equalTo(BigDecimal.ONE));
+			assertThat(car.getWheels(), hasSize(2));
+		}
+	}
+
+	@Test
+	public void canStreamInstances() {
+		List<Person> people = aRandomInstanceOf(Person.class).excludeProperty("siblings")
+				.stream()
+				.limit(10)
+				.collect(Collectors.toList());
+		assertThat(people, hasSize(10));
+		for (Person person : people) {
+			assertThat(person.getFirstname(), notNullValue());
+			assertThat(person.getSiblings(), nullValue());
+		}
+	}
+
+	@Test
+	public void canBuildTheSameInstancesInParallelWhateverThePool() {
+		BeanBuilder<Person> builder = aRandomInstanceOf(Person.class).collectionSizeRangeOf(0, 3);
+		ForkJoinPool single = new ForkJoinPool(1), several = new ForkJoinPool(4);
+		try {
+			List<Person> serial = builder.buildParallel(500, 42L, single);
+			List<Person> parallel = builder.buildParallel(500, 42L, several);
+			List<Person> common = builder.buildParallel(500, 42L);
+			assertThat(serial, hasSize(500));
+			for (int i = 0; i < serial.size(); ++i) {
+				assertThat(parallel.get(i).getFirstname(), equalTo(serial.get(i).getFirstname()));
+				assertThat(parallel.get(i).getSiblings().size(), equalTo(serial.get(i).getSiblings().size()));
+				assertThat(common.get(i).getSurname(), equalTo(serial.get(i).getSurname()));
+			}
+			assertThat(builder.buildParallel(500, 43L).get(0).getFirstname(),
+					not(equalTo(serial.get(0).getFirstname())));
+		} finally {
+			single.shutdown();
+			several.shutdown();
+		}
+	}
+
+	@Test
+	public void canFreezeABuilderIntoATemplate() {
+		BeanBuilder<Person> builder = aRandomInstanceOf(Person.class).excludeProperty("siblings")
+				.path("person.surname", "Smith");
+		BeanTemplate<Person> template = builder.freeze();
+		builder.with("firstname", "Alice").excludePath("person.surname");
+		Person fromBuilder = builder.build();
+		assertThat(fromBuilder.getFirstname(), equalTo("Alice"));
+		assertThat(fromBuilder.getSurname(), nullValue());
+		Person fromTemplate = template.build();
+		assertThat(fromTemplate.getFirstname(), not(equalTo("Alice")));
+		assertThat(fromTemplate.getSurname(), equalTo("Smith"));
+		assertThat(fromTemplate.getSiblings(), nullValue());
+	}
+
+	@Test
+	public void canDeriveRepeatedlyFromATemplateWithManyPropertyRules() {
+		BeanTemplate<Person> template = aRandomInstanceOf(Person.class).excludeProperty("siblings").freeze();
+		for (int i = 0; i < 5000; ++i) {
+			template = template.with("unused" + i, "Value" + i);
+		}
+		BeanTemplate<Person> bob = template.with("firstname", "Bob"), derived = bob;
+		for (int i = 0; i < 5000; ++i) {
+			derived = derived.with("surname", "Smith" + i);
+		}
+		assertThat(derived.build().getFirstname(), equalTo("Bob"));
+		assertThat(derived.build().getSurname(), equalTo("Smith4999"));
+		assertThat(bob.build().getFirstname(), equalTo("Bob"));
+		assertThat(bob.build().getSurname(), not(startsWith("Smith")));
+		assertThat(template.build().getFirstname(), not(equalTo("Bob")));
+	}
+
+	@Test
+	public void canDeriveTemplatesFromATemplate() {
+		BeanTemplate<Person> template = aRandomInstanceOf(Person.class).collectionSizeOf(2).freeze();
+		BeanTemplate<Person> bob = template.with("person.firstname", "Bob");
+		BeanTemplate<Person> smiths = bob.with("person.siblings.surname", "Smith");
+		List<Person> people = IntStream.range(0, 100)
+				.parallel()
+				.mapToObj(i -> smiths.build())
+				.collect(Collectors.toList());
+		for (Person person : people) {
+			assertThat(person.getFirstname(), equalTo("Bob"));
+			assertThat(person.getSiblings(), hasSize(2));
+			assertThat(person.getSiblings().get(1).getSurname(), equalTo("Smith"));
+		}
+		assertThat(template.build().getFirstname(), not(equalTo("Bob")));
+		assertThat(bob.build().getSiblings().get(0).getSurname(), not(equalTo("Smith")));
+		assertThat(template.buildMany(3), hasSize(3));
+	}
+
+	@Test
+	public void canPopulateMapValuesWithTheBuilderConfiguration() {
+		Garage garage = aRandomInstanceOf(Garage.class).collectionSizeOf(3)
+				.path("garage.cars.engine.capacity", BigDecimal.ONE)
+				.with(Wheel.class, theValue(new Wheel(17)))
+				.build();
+		assertThat(garage.getCars().size(), equalTo(3));
+		for (Car car : garage.getCars().values()) {
+			assertThat(car.getEngine().getCapacity(), equalTo(BigDecimal.ONE));
+			assertThat(car.getWheels(), hasSize(3));
+			assertThat(car.getWheels().get(0).getDiameter(), equalTo(17));
+		}
+	}
+
+	@Test
+	public void canPopulateInterfaceAndAbstractMapValuesWithStubs() {
+		ShapeCatalogue catalogue = aRandomInstanceOf(ShapeCatalogue.class).collectionSizeOf(2).build();
+		assertThat(catalogue.getSizes().size(), equalTo(2));
+		assertThat(catalogue.getSizes().values(), everyItem(notNullValue(Number.class)));
+		for (Shape shape : catalogue.getShapes().values()) {
+			assertThat(shape.numberOfSides(), notNullValue());
+		}
+		ShapeCatalogue fields = aRandomInstanceOf(ShapeCatalogue.class).usingFields().collectionSizeOf(2).build();
+		for (Shape shape : fields.getShapes().values()) {
+			assertThat(shape.numberOfSides(), notNullValue());
+		}
+		ShapeCatalogue squares = aRandomInstanceOf(ShapeCatalogue.class).subtype(Shape.class, Square.class).build();
+		assertThat(squares.getShapes().values(), everyItem(instanceOf(Square.class)));
+	}
+
+	@Test(expected = BeanBuilderException.class)
+	public void canNotPopulateAMapWithAParameterizedValueType() {
+		aRandomInstanceOf(GroupedNames.class).build();
+	}
+
+	@Test
+	public void canBuildATypeWithAParameterizedMapValueTypeIfTheMapIsExcluded() {
+		GroupedNames names = aRandomInstanceOf(GroupedNames.class).excludeProperty("groups").build();
+		assertThat(names.getGroups(), nullValue());
+	}
+
+	@Test
+	public void canPopulateArrayMapValuesWithTheBuilderConfiguration() {
+		AllTypes allTypes = aRandomInstanceOf(AllTypes.class).collectionSizeOf(2).build();
+		assertThat(allTypes.getArrayMap().size(), equalTo(2));
+		for (String[] value : allTypes.getArrayMap().values()) {
+			assertThat(value, arrayWithSize(2));
+			assertThat(value, not(hasItemInArray(nullValue())));
+		}
+		AllTypes fixed = aRandomInstanceOf(AllTypes.class).with(String.class, theValue("fixed")).build();
+		for (String[] value : fixed.getArrayMap().values()) {
+			assertThat(Arrays.asList(value), everyItem(equalTo("fixed")));
+		}
+	}
+
+	@Test
+	public void canFillPrimitiveArrays() {
+		assertThat(aRandomInstanceOf(AllTypes.class).collectionSizeOf(5).build().getArray().length, equalTo(5));
+		assertThat(anEmptyInstanceOf(AllTypes.class).collectionSizeOf(3).build().getArray(), equalTo(new int[3]));
+		int[] sevens = aRandomInstanceOf(AllTypes.class).collectionSizeOf(2)
+				.with(int.class, theValue(7))
+				.build()
+				.getArray();
+		assertThat(sevens, equalTo(new int[] { 7, 7 }));
+	}
+
+	@Test
+	public void canPopulateFieldsOfATypeWithoutSetters() {
+		ConstructorOnlyAllTypes allTypes = aRandomInstanceOf(ConstructorOnlyAllTypes.class).usingFields()
+				.collectionSizeOf(3)
+				.with("stringValue", "Bob")
+				.excludeProperty("dateValue")
+				.build();
+		assertThat(allTypes.getStringValue(), equalTo("Bob"));
+		assertThat(allTypes.getDateValue(), nullValue());
+		assertThat(allTypes.getEnumValue(), notNullValue());
+		assertThat(allTypes.getLongObjectValue(), notNullValue());
+		assertThat(allTypes.getLocalDateValue(), notNullValue());
+		assertThat(allTypes.getBigDecimalValue(), notNullValue());
+		assertThat(allTypes.getCharValue(), not(equalTo((char) 0)));
+		assertThat(allTypes.getArray().length, equalTo(3));
+		assertThat(allTypes.getList(), hasSize(3));
+		assertThat(allTypes.getMap().size(), equalTo(3));
+	}
+
+	@Test
+	public void canPopulateFieldsOfATypeWithAProtectedDefaultConstructor() {
+		ProtectedConstructor instance = aRandomInstanceOf(ProtectedConstructor.class).usingFields().build();
+		assertThat(instance.getName(), notNullValue());
+	}
+
+	@Test
+	public void canPopulateNestedFieldsOfTypesWithoutADefaultConstructor() {
+		ConstructorOnlyNested nested = aRandomInstanceOf(ConstructorOnlyNested.class).usingFields()
+				.path("constructoronlynested.nested.value", "Alice")
+				.build();
+		assertThat(nested.getNested().getValue(), equalTo("Alice"));
+	}
+
+	@Test
+	public void canInternValuesFromABoundedPool() {
+		List<Person> people = aRandomInstanceOf(Person.class).excludeProperty("siblings")
+				.internValues(4)
+				.buildMany(200);
+		Set<String> firstnames = new HashSet<>();
+		for (Person person : people) {
+			firstnames.add(person.getFirstname());
+		}
+		assertThat(firstnames.size(), lessThanOrEqualTo(4));
+		assertThat(people.get(0).getFirstname(), notNullValue());
+		Person bob = aRandomInstanceOf(Person.class).internValues(4).with("firstname", "Bob").build();
+		assertThat(bob.getFirstname(), equalTo("Bob"));
+	}
+
+	@Test
+	public void canBuildTheSameInternedValuesInParallelFromSeparateBuilders() {
+		List<Person> first = aRandomInstanceOf(Person.class).excludeProperty("siblings")
+				.internValues(16)
+				.buildParallel(200, 42L);
+		List<Person> second = aRandomInstanceOf(Person.class).excludeProperty("siblings")
+				.internValues(16)
+				.buildParallel(200, 42L);
+		for (int i = 0; i < first.size(); ++i) {
+			assertThat(second.get(i).getFirstname(), equalTo(first.get(i).getFirstname()));
+			assertThat(second.get(i).getSurname(), equalTo(first.get(i).getSurname()));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void canNotInternValuesForAnEmptyInstance() {
+		anEmptyInstanceOf(Person.class).internValues(4);
+	}
+
 	@Test(expected = NoDefaultConstructorException.class)
 	public void canNotCreateAnInstanceWithNoDefaultConstructor() {
 		aRandomInstanceOf(NoDefaultConstructor.class).build();
@@ -0,0 +1,82 @@
+package org.exparity.stub.bean;
+
+import static org.exparity.beans.Type.type;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.exparity.beans.core.TypeProperty;
+import org.exparity.stub.testutils.type.WideBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the cost of reading and writing every property of a bean with sixty properties using reflection and using
+ * the bound {@link PropertyAccessor}. Placed alongside the {@link BeanBuilder} as the accessor is package private.
+ *
+ * @author Stewart Bissett
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessorBenchmark {
+
+    private final WideBean bean = new WideBean();
+    private List<TypeProperty> properties;
+    private PropertyAccessor[] accessors;
+    private Object[] values;
+
+    @Setup
+    public void setup() {
+        this.properties = type(WideBean.class).propertyList();
+        this.accessors = new PropertyAccessor[this.properties.size()];
+        this.values = new Object[this.properties.size()];
+        for (int i = 0; i < this.accessors.length; ++i) {
+            TypeProperty property = this.properties.get(i);
+            this.accessors[i] = new PropertyAccessor(property);
+            this.values[i] = BeanBuilder
+                    .defaultFactoryFor(property.getType(), BeanBuilder.BeanBuilderType.RANDOM, false)
+                    .createValue();
+        }
+    }
+
+    @Benchmark
+    public WideBean reflection() {
+        for (int i = 0; i < this.values.length; ++i) {
+            TypeProperty property = this.properties.get(i);
+            if (property.getValue(this.bean) != this.values[i]) {
+                property.setValue(this.bean, this.values[i]);
+            }
+        }
+        return this.bean;
+    }
+
+    @Benchmark
+    public WideBean bound() {
+        for (int i = 0; i < this.values.length; ++i) {
+            PropertyAccessor accessor = this.accessors[i];
+            if (accessor.getValue(this.bean) != this.values[i]) {
+                accessor.setValue(this.bean, this.values[i]);
+            }
+        }
+        return this.bean;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PropertyAccessorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
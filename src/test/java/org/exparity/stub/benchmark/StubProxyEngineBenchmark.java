@@ -0,0 +1,69 @@
+package org.exparity.stub.benchmark;
+
+import static org.exparity.stub.stub.StubBuilder.aRandomStubOf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.exparity.stub.stub.StubProxyEngine;
+import org.exparity.stub.stub.StubProxyEngine.MethodValueFactory;
+import org.exparity.stub.stub.StubProxyEngines;
+import org.exparity.stub.testutils.type.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the cost of creating and calling stubs of an interface for each {@link StubProxyEngine}. The instantiate
+ * benchmark measures only the creation of the proxy, using a value factory created once in the setup.
+ *
+ * @author Stewart Bissett
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StubProxyEngineBenchmark {
+
+    @Param({ "cglib", "jdkProxy" })
+    public String engineName;
+
+    private StubProxyEngine engine;
+    private MethodValueFactory values;
+    private Shape shape;
+
+    @Setup
+    public void setup() {
+        this.engine = "cglib".equals(this.engineName) ? StubProxyEngines.cglib() : StubProxyEngines.jdkProxy();
+        this.engine.prepare(Shape.class);
+        this.values = method -> null;
+        this.shape = aRandomStubOf(Shape.class).engine(this.engine).build();
+        this.shape.numberOfSides();
+    }
+
+    @Benchmark
+    public Shape instantiate() {
+        return this.engine.createProxy(Shape.class, this.values);
+    }
+
+    @Benchmark
+    public Integer call() {
+        return this.shape.numberOfSides();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StubProxyEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -13,6 +13,7 @@ import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Date;
 
+import org.exparity.stub.testutils.type.AbstractOfAllTypes;
 import org.exparity.stub.testutils.type.Car;
 import org.exparity.stub.testutils.type.EmptyEnum;
 import org.exparity.stub.testutils.type.FuelType;
@@ -38,6 +39,17 @@ public class ValueFactoriesTest {
 		checkResult(anEmptyInstanceOf(NoDefaultConstructor.class), any(NoDefaultConstructor.class));
 	}
 
+	@Test(expected = NoDefaultConstructorException.class)
+	public void canFailToCreateANewInstanceOfAnAbstractType() {
+		checkResult(anEmptyInstanceOf(AbstractOfAllTypes.class), any(AbstractOfAllTypes.class));
+	}
+
+	@Test
+	public void canCreateAnEmptyInstanceOfRepeatedly() {
+		ValueFactory<Car> factory = anEmptyInstanceOf(Car.class);
+		assertThat(factory.createValue(), not(sameInstance(factory.createValue())));
+	}
+
 	@Test
 	public void canCreateANullValue() {
 		checkResult(aNullValue(), nullValue());
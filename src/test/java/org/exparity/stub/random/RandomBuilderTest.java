@@ -164,6 +164,41 @@ public class RandomBuilderTest {
         assertThat(aRandomByteArray(), isA(byte[].class));
     }
 
+    @Test
+    public void canBuildRandomPrimitiveArrays() {
+        byte[] bytes = PrimitiveArrays.aRandomByteArray(1000);
+        for (byte value : bytes) {
+            assertThat(value, both(greaterThanOrEqualTo((byte) 0)).and(lessThan(Byte.MAX_VALUE)));
+        }
+        for (char value : PrimitiveArrays.aRandomCharArray(100)) {
+            assertThat(Character.isLetter(value), equalTo(true));
+        }
+        assertThat(((long[]) PrimitiveArrays.aRandomArrayOf(long.class, 10)).length, equalTo(10));
+        assertThat(PrimitiveArrays.aRandomArrayOf(boolean.class, 3), isA((Class) boolean[].class));
+    }
+
+    @Test
+    public void canBuildSeededValuesInTheSameRangesAsUnseededValues() {
+        Set<Integer> firstIntegers = new HashSet<>();
+        for (long seed = 0; seed < 1000; ++seed) {
+            RandomSource.withSeed(seed, () -> {
+                assertThat(aRandomInteger(), greaterThanOrEqualTo(0));
+                assertThat(aRandomLong(), greaterThanOrEqualTo(0L));
+                assertThat(aRandomDecimal(), greaterThanOrEqualTo(BigDecimal.ZERO));
+                for (int value : PrimitiveArrays.aRandomIntArray(10)) {
+                    assertThat(value, greaterThanOrEqualTo(0));
+                }
+                for (long value : PrimitiveArrays.aRandomLongArray(10)) {
+                    assertThat(value, greaterThanOrEqualTo(0L));
+                }
+                return null;
+            });
+            assertThat(aRandomInteger(), greaterThanOrEqualTo(0));
+            firstIntegers.add(RandomSource.withSeed(seed, RandomBuilder::aRandomInteger));
+        }
+        assertThat(firstIntegers.size(), greaterThan(990));
+    }
+
     @Test
     public void canBuildARandomChar() {
         assertThat(aRandomChar(), isA(Character.class));
@@ -1,20 +1,32 @@
 package org.exparity.stub.stub;
 
 import static org.exparity.beans.Bean.bean;
+import static org.exparity.stub.core.ValueFactories.theValue;
 import static org.exparity.stub.random.RandomBuilder.aRandomInstanceOf;
 import static org.exparity.stub.random.RandomBuilder.aRandomString;
 import static org.exparity.stub.stub.StubBuilder.aRandomStubOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.exparity.beans.core.BeanProperty;
 import org.exparity.beans.core.BeanVisitor;
+import org.exparity.stub.core.StubMetrics;
 import org.exparity.stub.testutils.type.AllTypes;
 import org.exparity.stub.testutils.type.Car;
 import org.exparity.stub.testutils.type.Circle;
@@ -36,6 +48,8 @@ import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import net.sf.cglib.proxy.Factory;
+
 /**
  * @author Stewart.Bissett
  */
@@ -154,6 +168,107 @@ public class StubBuilderTest {
         assertThat(instances, hasKey(instance.getValue()));
     }
 
+    @Test
+    public void canReuseProxyTypeAcrossStubs() {
+        Car first = aRandomStubOf(Car.class).build(), second = aRandomStubOf(Car.class).build();
+        assertThat(first.getClass(), Matchers.<Class<?>> equalTo(second.getClass()));
+        assertThat(first.getEngine(), not(sameInstance(second.getEngine())));
+        assertThat(first.getEngine(), sameInstance(first.getEngine()));
+    }
+
+    @Test
+    public void canUseIdentityForHashcodeAndEquals() {
+        OverrideHashcodeEquals instance = aRandomStubOf(OverrideHashcodeEquals.class).build();
+        assertThat(instance.hashCode(), equalTo(System.identityHashCode(instance)));
+        assertThat(instance.equals(instance), equalTo(true));
+        assertThat(instance.equals(aRandomStubOf(OverrideHashcodeEquals.class).build()), equalTo(false));
+    }
+
+    @Test
+    public void canMaterializeAGraph() {
+        Car car = aRandomStubOf(Car.class).materialize().build();
+        assertThat(car, not(instanceOf(Factory.class)));
+        assertThat(car.getEngine(), not(instanceOf(Factory.class)));
+        assertThat(car.getEngine().getCapacity(), notNullValue());
+        assertThat(car.getWheels().size(), greaterThan(0));
+        assertThat(car.getWheels().get(0).getDiameter(), notNullValue());
+    }
+
+    @Test
+    public void canMaterializeASimpleObject() {
+        AllTypes allTypes = aRandomStubOf(AllTypes.class).materialize().build();
+        bean(allTypes).visit(new BeanVisitor() {
+
+            @Override
+            public void visit(final BeanProperty property,
+                    final Object current,
+                    final Object[] stack,
+                    final AtomicBoolean stop) {
+                assertThat("Expected " + property + " to not be null", property.getValue(), notNullValue());
+            }
+        });
+    }
+
+    @Test
+    public void canMaterializeAnInterface() {
+        Service service = aRandomStubOf(Service.class).materialize().build();
+        assertThat(service.getCarByMake(aRandomString()), not(empty()));
+        assertThat(service.createCar(), sameInstance(service.createCar()));
+        service.addCar(aRandomInstanceOf(Car.class));
+    }
+
+    @Test
+    public void canMaterializeARecursiveGraph() {
+        Employee employee = aRandomStubOf(Employee.class).materialize().build();
+        assertThat(employee.getSiblings(), not(empty()));
+        assertThat(employee.getSiblings().get(0).getFirstname(), notNullValue());
+        assertThat(employee.getManager().getFirstname(), notNullValue());
+    }
+
+    @Test
+    public void canCreateAnInterfaceUsingTheJdkProxyEngine() {
+        Service service = aRandomStubOf(Service.class).engine(StubProxyEngines.jdkProxy()).build();
+        assertThat(Proxy.isProxyClass(service.getClass()), equalTo(true));
+        assertThat(service.getCarByMake(aRandomString()), not(empty()));
+        assertThat(service.createCar(), sameInstance(service.createCar()));
+        assertThat(service.hashCode(), equalTo(System.identityHashCode(service)));
+        assertThat(service.equals(service), equalTo(true));
+        service.addCar(aRandomInstanceOf(Car.class));
+    }
+
+    @Test
+    public void canCreateAnInterfaceUsingTheCglibEngine() {
+        Service service = aRandomStubOf(Service.class).engine(StubProxyEngines.cglib()).build();
+        assertThat(service, instanceOf(Factory.class));
+        assertThat(service.createCar(), sameInstance(service.createCar()));
+    }
+
+    @Test
+    public void canCreateAnInterfaceUsingTheCglibEngineByDefault() {
+        Service service = aRandomStubOf(Service.class).build();
+        assertThat(service, instanceOf(Factory.class));
+        assertThat(Proxy.isProxyClass(service.getClass()), equalTo(false));
+    }
+
+    @Test
+    public void canFallbackToCglibForClassesUsingTheJdkProxyEngine() {
+        Car car = aRandomStubOf(Car.class).engine(StubProxyEngines.jdkProxy()).build();
+        assertThat(car, instanceOf(Factory.class));
+        assertThat(car.getEngine().getCapacity(), notNullValue());
+    }
+
+    @Test
+    public void canCreateAPrecompiledStub() {
+        PrecompiledShape shape = aRandomStubOf(PrecompiledShape.class).build();
+        assertThat(shape.getClass().getName(), endsWith(GenerateStub.SUFFIX));
+        assertThat(shape.getName(), notNullValue());
+        assertThat(shape.getName(), equalTo(shape.getName()));
+        assertThat(shape.getNumberOfSides(), equalTo(shape.getNumberOfSides()));
+        assertThat(shape.getCorners(), not(empty()));
+        assertThat(shape.equals(shape), equalTo(true));
+        assertThat(shape.hashCode(), equalTo(System.identityHashCode(shape)));
+    }
+
     @SuppressWarnings("rawtypes")
     @Test(expected = IllegalArgumentException.class)
     public void canFailToCreateAnInstanceOfAGenericType() {
@@ -173,6 +288,191 @@ public class StubBuilderTest {
         assertThat(instance.getValue(), notNullValue());
     }
 
+    @Test
+    public void canBuildRepeatedlyFromAGenericBuilder() {
+        StubBuilder<GenericType<List<String>>> builder = aRandomStubOf(new TypeReference<GenericType<List<String>>>() {});
+        GenericType<List<String>> first = builder.build(), second = builder.build();
+        assertThat(first, not(sameInstance(second)));
+        assertThat(first.getValue(), everyItem(instanceOf(String.class)));
+        assertThat(second.getValue(), everyItem(instanceOf(String.class)));
+        assertThat(builder.with(String.class, theValue("Bob")).build().getValue(), everyItem(equalTo("Bob")));
+    }
+
+    @Test
+    public void canUseTheMostSpecificFactoryForAType() {
+        ShapeSorter sorter = aRandomStubOf(ShapeSorter.class).with(Square.class, theValue(new Square()))
+                .with(Shape.class, theValue(new Circle()))
+                .with(Square.class, theValue(new Square()))
+                .build();
+        assertThat(sorter.getShape(), instanceOf(Circle.class));
+    }
+
+    @Test
+    public void canCreateLazyCollections() {
+        AllTypes allTypes = aRandomStubOf(AllTypes.class).collectionSizeOf(1_000_000).lazyCollections().build();
+        assertThat(allTypes.getList(), hasSize(1_000_000));
+        assertThat(allTypes.getList().get(999_999), equalTo(allTypes.getList().get(999_999)));
+        assertThat(allTypes.getList().get(0), not(equalTo(allTypes.getList().get(1))));
+        assertThat(allTypes.getList().indexOf(allTypes.getList().get(10)), equalTo(10));
+        Car car = aRandomStubOf(Car.class).collectionSizeOf(10).lazyCollections().build();
+        assertThat(car.getWheels().get(5), not(sameInstance(car.getWheels().get(5))));
+        assertThat(car.getWheels().get(5).getDiameter(), equalTo(car.getWheels().get(5).getDiameter()));
+    }
+
+    @Test
+    public void canLookUpTheDistinctKeysOfALazyMap() {
+        Map<Long, String> map = aRandomStubOf(AllTypes.class).collectionSizeOf(1000).lazyCollections().build().getMap();
+        assertThat(map.keySet(), hasSize(1000));
+        assertThat(new HashSet<>(map.keySet()), hasSize(1000));
+        for (Map.Entry<Long, String> entry : map.entrySet()) {
+            assertThat(map.get(entry.getKey()), equalTo(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void canLookUpALargeMapWithoutCreatingMoreKeys() {
+        AtomicLong keys = new AtomicLong();
+        Map<Long, String> map = aRandomStubOf(AllTypes.class).collectionSizeOf(100_000)
+                .lazyCollections()
+                .with(Long.class, () -> keys.incrementAndGet())
+                .build()
+                .getMap();
+        assertThat(keys.get(), equalTo(100_000L));
+        assertThat(map.get(1L), notNullValue());
+        assertThat(map.get(0L), nullValue());
+        assertThat(map.containsKey(100_000L), equalTo(true));
+        assertThat(map.size(), equalTo(100_000));
+        assertThat(keys.get(), equalTo(100_000L));
+    }
+
+    @Test
+    public void canCacheElementsOfLazyCollections() {
+        Car car = aRandomStubOf(Car.class).collectionSizeOf(1000).lazyCollections(10).build();
+        assertThat(car.getWheels().get(500), sameInstance(car.getWheels().get(500)));
+        assertThat(car.getWheels().indexOf(car.getWheels().get(5)), equalTo(5));
+    }
+
+    @Test
+    public void canBuildFromATemplateConcurrently() throws Exception {
+        StubTemplate<Car> template = aRandomStubOf(Car.class).collectionSizeOf(2).freeze();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Car>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                results.add(executor.submit(() -> template.buildMany(50)));
+            }
+            Set<Car> cars = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<List<Car>> result : results) {
+                for (Car car : result.get()) {
+                    assertThat(car.getWheels(), hasSize(2));
+                    cars.add(car);
+                }
+            }
+            assertThat(cars, hasSize(400));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void canChangeABuilderWithoutChangingItsTemplate() {
+        StubBuilder<Car> builder = aRandomStubOf(Car.class).collectionSizeOf(2);
+        StubTemplate<Car> template = builder.freeze();
+        builder.collectionSizeOf(3);
+        assertThat(template.build().getWheels(), hasSize(2));
+        assertThat(builder.build().getWheels(), hasSize(3));
+    }
+
+    @Test(expected = FinalClassException.class)
+    public void canFailToFreezeAFinalType() {
+        aRandomStubOf(String.class).freeze();
+    }
+
+    @Test
+    public void canLimitTheDepthOfAStubGraph() {
+        Person person = aRandomStubOf(Person.class).collectionSizeOf(2).maxDepth(1).build();
+        assertThat(person.getSiblings(), hasSize(2));
+        assertThat(person.getSiblings().get(0).getSiblings(), empty());
+        assertThat(person.getSiblings().get(0).getFirstname(), notNullValue());
+        assertThat(StubBuilder.countObjectsIn(person), equalTo(4));
+    }
+
+    @Test
+    public void canShareTheDefinitionsOfARecursiveTypeAtEveryDepth() throws Exception {
+        Method getSiblings = Person.class.getMethod("getSiblings");
+        StubDefinition<?> siblings = new StubDefinition<>(Person.class).getReturnDefinition(getSiblings);
+        StubDefinition<?> sibling = siblings.getNestedDefinition(siblings.getTypeByParameter("E"));
+        assertThat(sibling.getReturnDefinition(getSiblings), sameInstance(siblings));
+    }
+
+    @Test
+    public void canLimitTheNumberOfObjectsInAStubGraph() {
+        Employee employee = aRandomStubOf(Employee.class).maxObjects(3).build();
+        Person manager = employee.getManager();
+        assertThat(manager, notNullValue());
+        assertThat(manager.getSiblings(), notNullValue());
+        assertThat(StubBuilder.countObjectsIn(employee), equalTo(3));
+        assertThat(manager.getSiblings(), empty());
+    }
+
+    @Test(expected = StubBuilderException.class)
+    public void canFailToCountObjectsInAStubWithoutABudget() {
+        StubBuilder.countObjectsIn(aRandomStubOf(Person.class).build());
+    }
+
+    @Test
+    public void canRecordMetricsForStubs() {
+        StubMetrics.reset();
+        StubMetrics.enable();
+        try {
+            MeasuredShape shape = aRandomStubOf(MeasuredShape.class).build();
+            assertThat(shape.getName(), equalTo(shape.getName()));
+            StubMetrics.Snapshot snapshot = StubMetrics.snapshot();
+            assertThat(snapshot.getType(MeasuredShape.class).getObjectsCreated(), equalTo(1L));
+            assertThat(snapshot.getType(MeasuredShape.class).getProxyClassesGenerated(), equalTo(1L));
+            assertThat(snapshot.getType(String.class).getObjectsCreated(), equalTo(1L));
+            assertThat(snapshot.getReturnValueHits(), equalTo(1L));
+            assertThat(snapshot.getReturnValueMisses(), equalTo(1L));
+            assertThat(snapshot.getType(MeasuredShape.class).getReturnValueHits(), equalTo(1L));
+            assertThat(snapshot.getType(MeasuredShape.class).getReturnValueMisses(), equalTo(1L));
+            assertThat(snapshot.getType(MeasuredShape.class).getReturnValueHitRate(), equalTo(0.5));
+            assertThat(snapshot.getType(String.class).getReturnValueMisses(), equalTo(0L));
+            assertThat(snapshot.getGenerationNanos(), greaterThan(0L));
+        } finally {
+            StubMetrics.disable();
+            StubMetrics.reset();
+        }
+    }
+
+    @Test
+    public void canRecordTheTimeForEachTypeWithoutCountingNestedValuesTwice() {
+        StubMetrics.reset();
+        StubMetrics.enable();
+        try {
+            long start = System.nanoTime();
+            Person person = aRandomStubOf(Person.class).build();
+            for (Person sibling : person.getSiblings()) {
+                assertThat(sibling.getFirstname(), notNullValue());
+            }
+            long elapsed = System.nanoTime() - start;
+            StubMetrics.Snapshot snapshot = StubMetrics.snapshot();
+            assertThat(snapshot.getType(Person.class).getObjectsCreated(), greaterThan(1L));
+            assertThat(snapshot.getGenerationNanos(), lessThanOrEqualTo(elapsed));
+        } finally {
+            StubMetrics.disable();
+            StubMetrics.reset();
+        }
+    }
+
+    @Test
+    public void canNotRecordMetricsWhenDisabled() {
+        StubMetrics.reset();
+        Person person = aRandomStubOf(Person.class).build();
+        assertThat(person.getFirstname(), notNullValue());
+        assertThat(StubMetrics.snapshot().getObjectsCreated(), equalTo(0L));
+        assertThat(StubMetrics.snapshot().getReturnValueHitRate(), equalTo(0.0));
+    }
+
     @SuppressWarnings("rawtypes")
     @Test(expected = IllegalArgumentException.class)
     public void canFailIfTypeNotSuppliedToTypeReference() {
@@ -186,4 +486,20 @@ public class StubBuilderTest {
         assertThat(instance.toString(), notNullValue());
     }
 
+    public static interface MeasuredShape {
+
+        public String getName();
+    }
+
+    @GenerateStub
+    public static interface PrecompiledShape {
+
+        public String getName();
+
+        public int getNumberOfSides();
+
+        public List<Wheel> getCorners();
+
+        public void draw();
+    }
 }
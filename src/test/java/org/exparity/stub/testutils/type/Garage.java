@@ -0,0 +1,16 @@
+package org.exparity.stub.testutils.type;
+
+import java.util.Map;
+
+public class Garage {
+
+    private Map<String, Car> cars;
+
+    public Map<String, Car> getCars() {
+        return this.cars;
+    }
+
+    public void setCars(final Map<String, Car> cars) {
+        this.cars = cars;
+    }
+}
@@ -0,0 +1,17 @@
+package org.exparity.stub.testutils.type;
+
+import java.util.List;
+import java.util.Map;
+
+public class GroupedNames {
+
+    private Map<String, List<String>> groups;
+
+    public Map<String, List<String>> getGroups() {
+        return this.groups;
+    }
+
+    public void setGroups(final Map<String, List<String>> groups) {
+        this.groups = groups;
+    }
+}
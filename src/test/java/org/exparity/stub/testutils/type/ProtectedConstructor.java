@@ -0,0 +1,15 @@
+package org.exparity.stub.testutils.type;
+
+public class ProtectedConstructor {
+
+    private final String name;
+
+    protected ProtectedConstructor() {
+        this.name = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.exparity.stub.testutils.type;
+
+import java.util.Map;
+
+public class ShapeCatalogue {
+
+    private Map<String, Shape> shapes;
+    private Map<String, Number> sizes;
+
+    public Map<String, Shape> getShapes() {
+        return this.shapes;
+    }
+
+    public void setShapes(final Map<String, Shape> shapes) {
+        this.shapes = shapes;
+    }
+
+    public Map<String, Number> getSizes() {
+        return this.sizes;
+    }
+
+    public void setSizes(final Map<String, Number> sizes) {
+        this.sizes = sizes;
+    }
+}
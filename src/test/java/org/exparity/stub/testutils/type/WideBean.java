@@ -0,0 +1,550 @@
+package org.exparity.stub.testutils.type;
+
+import java.math.BigDecimal;
+
+/**
+ * A bean with sixty properties for measuring the per-property cost of building beans
+ */
+public class WideBean {
+
+    private String name01;
+    private String name02;
+    private String name03;
+    private String name04;
+    private String name05;
+    private String name06;
+    private String name07;
+    private String name08;
+    private String name09;
+    private String name10;
+    private String name11;
+    private String name12;
+    private String name13;
+    private String name14;
+    private String name15;
+    private String name16;
+    private String name17;
+    private String name18;
+    private String name19;
+    private String name20;
+    private int count01;
+    private int count02;
+    private int count03;
+    private int count04;
+    private int count05;
+    private int count06;
+    private int count07;
+    private int count08;
+    private int count09;
+    private int count10;
+    private int count11;
+    private int count12;
+    private int count13;
+    private int count14;
+    private int count15;
+    private int count16;
+    private int count17;
+    private int count18;
+    private int count19;
+    private int count20;
+    private BigDecimal amount01;
+    private BigDecimal amount02;
+    private BigDecimal amount03;
+    private BigDecimal amount04;
+    private BigDecimal amount05;
+    private BigDecimal amount06;
+    private BigDecimal amount07;
+    private BigDecimal amount08;
+    private BigDecimal amount09;
+    private BigDecimal amount10;
+    private BigDecimal amount11;
+    private BigDecimal amount12;
+    private BigDecimal amount13;
+    private BigDecimal amount14;
+    private BigDecimal amount15;
+    private BigDecimal amount16;
+    private BigDecimal amount17;
+    private BigDecimal amount18;
+    private BigDecimal amount19;
+    private BigDecimal amount20;
+
+    public String getName01() {
+        return this.name01;
+    }
+
+    public void setName01(final String name01) {
+        this.name01 = name01;
+    }
+
+    public String getName02() {
+        return this.name02;
+    }
+
+    public void setName02(final String name02) {
+        this.name02 = name02;
+    }
+
+    public String getName03() {
+        return this.name03;
+    }
+
+    public void setName03(final String name03) {
+        this.name03 = name03;
+    }
+
+    public String getName04() {
+        return this.name04;
+    }
+
+    public void setName04(final String name04) {
+        this.name04 = name04;
+    }
+
+    public String getName05() {
+        return this.name05;
+    }
+
+    public void setName05(final String name05) {
+        this.name05 = name05;
+    }
+
+    public String getName06() {
+        return this.name06;
+    }
+
+    public void setName06(final String name06) {
+        this.name06 = name06;
+    }
+
+    public String getName07() {
+        return this.name07;
+    }
+
+    public void setName07(final String name07) {
+        this.name07 = name07;
+    }
+
+    public String getName08() {
+        return this.name08;
+    }
+
+    public void setName08(final String name08) {
+        this.name08 = name08;
+    }
+
+    public String getName09() {
+        return this.name09;
+    }
+
+    public void setName09(final String name09) {
+        this.name09 = name09;
+    }
+
+    public String getName10() {
+        return this.name10;
+    }
+
+    public void setName10(final String name10) {
+        this.name10 = name10;
+    }
+
+    public String getName11() {
+        return this.name11;
+    }
+
+    public void setName11(final String name11) {
+        this.name11 = name11;
+    }
+
+    public String getName12() {
+        return this.name12;
+    }
+
+    public void setName12(final String name12) {
+        this.name12 = name12;
+    }
+
+    public String getName13() {
+        return this.name13;
+    }
+
+    public void setName13(final String name13) {
+        this.name13 = name13;
+    }
+
+    public String getName14() {
+        return this.name14;
+    }
+
+    public void setName14(final String name14) {
+        this.name14 = name14;
+    }
+
+    public String getName15() {
+        return this.name15;
+    }
+
+    public void setName15(final String name15) {
+        this.name15 = name15;
+    }
+
+    public String getName16() {
+        return this.name16;
+    }
+
+    public void setName16(final String name16) {
+        this.name16 = name16;
+    }
+
+    public String getName17() {
+        return this.name17;
+    }
+
+    public void setName17(final String name17) {
+        this.name17 = name17;
+    }
+
+    public String getName18() {
+        return this.name18;
+    }
+
+    public void setName18(final String name18) {
+        this.name18 = name18;
+    }
+
+    public String getName19() {
+        return this.name19;
+    }
+
+    public void setName19(final String name19) {
+        this.name19 = name19;
+    }
+
+    public String getName20() {
+        return this.name20;
+    }
+
+    public void setName20(final String name20) {
+        this.name20 = name20;
+    }
+
+    public int getCount01() {
+        return this.count01;
+    }
+
+    public void setCount01(final int count01) {
+        this.count01 = count01;
+    }
+
+    public int getCount02() {
+        return this.count02;
+    }
+
+    public void setCount02(final int count02) {
+        this.count02 = count02;
+    }
+
+    public int getCount03() {
+        return this.count03;
+    }
+
+    public void setCount03(final int count03) {
+        this.count03 = count03;
+    }
+
+    public int getCount04() {
+        return this.count04;
+    }
+
+    public void setCount04(final int count04) {
+        this.count04 = count04;
+    }
+
+    public int getCount05() {
+        return this.count05;
+    }
+
+    public void setCount05(final int count05) {
+        this.count05 = count05;
+    }
+
+    public int getCount06() {
+        return this.count06;
+    }
+
+    public void setCount06(final int count06) {
+        this.count06 = count06;
+    }
+
+    public int getCount07() {
+        return this.count07;
+    }
+
+    public void setCount07(final int count07) {
+        this.count07 = count07;
+    }
+
+    public int getCount08() {
+        return this.count08;
+    }
+
+    public void setCount08(final int count08) {
+        this.count08 = count08;
+    }
+
+    public int getCount09() {
+        return this.count09;
+    }
+
+    public void setCount09(final int count09) {
+        this.count09 = count09;
+    }
+
+    public int getCount10() {
+        return this.count10;
+    }
+
+    public void setCount10(final int count10) {
+        this.count10 = count10;
+    }
+
+    public int getCount11() {
+        return this.count11;
+    }
+
+    public void setCount11(final int count11) {
+        this.count11 = count11;
+    }
+
+    public int getCount12() {
+        return this.count12;
+    }
+
+    public void setCount12(final int count12) {
+        this.count12 = count12;
+    }
+
+    public int getCount13() {
+        return this.count13;
+    }
+
+    public void setCount13(final int count13) {
+        this.count13 = count13;
+    }
+
+    public int getCount14() {
+        return this.count14;
+    }
+
+    public void setCount14(final int count14) {
+        this.count14 = count14;
+    }
+
+    public int getCount15() {
+        return this.count15;
+    }
+
+    public void setCount15(final int count15) {
+        this.count15 = count15;
+    }
+
+    public int getCount16() {
+        return this.count16;
+    }
+
+    public void setCount16(final int count16) {
+        this.count16 = count16;
+    }
+
+    public int getCount17() {
+        return this.count17;
+    }
+
+    public void setCount17(final int count17) {
+        this.count17 = count17;
+    }
+
+    public int getCount18() {
+        return this.count18;
+    }
+
+    public void setCount18(final int count18) {
+        this.count18 = count18;
+    }
+
+    public int getCount19() {
+        return this.count19;
+    }
+
+    public void setCount19(final int count19) {
+        this.count19 = count19;
+    }
+
+    public int getCount20() {
+        return this.count20;
+    }
+
+    public void setCount20(final int count20) {
+        this.count20 = count20;
+    }
+
+    public BigDecimal getAmount01() {
+        return this.amount01;
+    }
+
+    public void setAmount01(final BigDecimal amount01) {
+        this.amount01 = amount01;
+    }
+
+    public BigDecimal getAmount02() {
+        return this.amount02;
+    }
+
+    public void setAmount02(final BigDecimal amount02) {
+        this.amount02 = amount02;
+    }
+
+    public BigDecimal getAmount03() {
+        return this.amount03;
+    }
+
+    public void setAmount03(final BigDecimal amount03) {
+        this.amount03 = amount03;
+    }
+
+    public BigDecimal getAmount04() {
+        return this.amount04;
+    }
+
+    public void setAmount04(final BigDecimal amount04) {
+        this.amount04 = amount04;
+    }
+
+    public BigDecimal getAmount05() {
+        return this.amount05;
+    }
+
+    public void setAmount05(final BigDecimal amount05) {
+        this.amount05 = amount05;
+    }
+
+    public BigDecimal getAmount06() {
+        return this.amount06;
+    }
+
+    public void setAmount06(final BigDecimal amount06) {
+        this.amount06 = amount06;
+    }
+
+    public BigDecimal getAmount07() {
+        return this.amount07;
+    }
+
+    public void setAmount07(final BigDecimal amount07) {
+        this.amount07 = amount07;
+    }
+
+    public BigDecimal getAmount08() {
+        return this.amount08;
+    }
+
+    public void setAmount08(final BigDecimal amount08) {
+        this.amount08 = amount08;
+    }
+
+    public BigDecimal getAmount09() {
+        return this.amount09;
+    }
+
+    public void setAmount09(final BigDecimal amount09) {
+        this.amount09 = amount09;
+    }
+
+    public BigDecimal getAmount10() {
+        return this.amount10;
+    }
+
+    public void setAmount10(final BigDecimal amount10) {
+        this.amount10 = amount10;
+    }
+
+    public BigDecimal getAmount11() {
+        return this.amount11;
+    }
+
+    public void setAmount11(final BigDecimal amount11) {
+        this.amount11 = amount11;
+    }
+
+    public BigDecimal getAmount12() {
+        return this.amount12;
+    }
+
+    public void setAmount12(final BigDecimal amount12) {
+        this.amount12 = amount12;
+    }
+
+    public BigDecimal getAmount13() {
+        return this.amount13;
+    }
+
+    public void setAmount13(final BigDecimal amount13) {
+        this.amount13 = amount13;
+    }
+
+    public BigDecimal getAmount14() {
+        return this.amount14;
+    }
+
+    public void setAmount14(final BigDecimal amount14) {
+        this.amount14 = amount14;
+    }
+
+    public BigDecimal getAmount15() {
+        return this.amount15;
+    }
+
+    public void setAmount15(final BigDecimal amount15) {
+        this.amount15 = amount15;
+    }
+
+    public BigDecimal getAmount16() {
+        return this.amount16;
+    }
+
+    public void setAmount16(final BigDecimal amount16) {
+        this.amount16 = amount16;
+    }
+
+    public BigDecimal getAmount17() {
+        return this.amount17;
+    }
+
+    public void setAmount17(final BigDecimal amount17) {
+        this.amount17 = amount17;
+    }
+
+    public BigDecimal getAmount18() {
+        return this.amount18;
+    }
+
+    public void setAmount18(final BigDecimal amount18) {
+        this.amount18 = amount18;
+    }
+
+    public BigDecimal getAmount19() {
+        return this.amount19;
+    }
+
+    public void setAmount19(final BigDecimal amount19) {
+        this.amount19 = amount19;
+    }
+
+    public BigDecimal getAmount20() {
+        return this.amount20;
+    }
+
+    public void setAmount20(final BigDecimal amount20) {
+        this.amount20 = amount20;
+    }
+}